@@ -0,0 +1,99 @@
+package com.edu.edupage.benchmark;
+
+import com.edu.edupage.dto.AttendanceDTO;
+import com.edu.edupage.dto.GradeDTO;
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.entity.*;
+import com.edu.edupage.repository.AttendanceRepository;
+import com.edu.edupage.repository.GradeRepository;
+import com.edu.edupage.service.AttendanceService;
+import com.edu.edupage.service.GradeService;
+import com.edu.edupage.service.ScheduleService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping of grades, attendance and schedules. Grades and attendance go through the services'
+ * list reads with repositories returning fully initialized entities, so only the mapping is measured.
+ * Weekly schedule reads are projected by the database, so {@code ScheduleService.mapToDTO} (still used
+ * when creating and generating lessons) is called directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    @Param({ "30", "1000" })
+    public int rows;
+
+    private GradeService gradeService;
+    private AttendanceService attendanceService;
+    private ScheduleService scheduleService;
+    private List<Schedule> schedules;
+    private MethodHandle scheduleMapToDTO;
+
+    @Setup
+    public void setUp() {
+        SchoolFixture school = new SchoolFixture(SchoolFixture.CLASSES_PER_TEACHER);
+        ClassGroup classGroup = school.classGroups.get(0);
+        Student student = SchoolFixture.student(1L, classGroup);
+
+        schedules = new ArrayList<>();
+        List<Grade> grades = new ArrayList<>();
+        List<Attendance> attendance = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Subject subject = school.subjects.get(i % school.subjects.size());
+            Teacher teacher = school.teachers.get(i % school.teachers.size());
+            Schedule schedule = SchoolFixture.schedule(i + 1L, classGroup, teacher, subject);
+            schedules.add(schedule);
+            grades.add(Grade.builder().id(i + 1L).student(student).subject(subject).teacher(teacher)
+                    .value(4.0).maxValue(5.0).gradeType("Homework").date(SchoolFixture.day(i))
+                    .createdAt(LocalDateTime.now()).build());
+            attendance.add(Attendance.builder().id(i + 1L).student(student).schedule(schedule)
+                    .date(SchoolFixture.day(i)).status(AttendanceStatus.PRESENT).markedBy(teacher.getUser())
+                    .markedAt(LocalDateTime.now()).build());
+        }
+
+        gradeService = new GradeService(InMemoryRepositories.of(GradeRepository.class, Map.of(
+                "findByStudentIdOrderByDateDesc", args -> grades)), null, null, null);
+        attendanceService = new AttendanceService(InMemoryRepositories.of(AttendanceRepository.class, Map.of(
+                "findByStudentId", args -> attendance)), null, null, null, null, null, null, null);
+        scheduleService = new ScheduleService(null, null, null, null, null, null, null, null, null, null, null);
+        try {
+            scheduleMapToDTO = MethodHandles.privateLookupIn(ScheduleService.class, MethodHandles.lookup())
+                    .findVirtual(ScheduleService.class, "mapToDTO", MethodType.methodType(ScheduleDTO.class, Schedule.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public List<GradeDTO> gradeMapToDTO() {
+        return gradeService.getStudentGrades(1L);
+    }
+
+    @Benchmark
+    public List<AttendanceDTO> attendanceMapToDTO() {
+        return attendanceService.getStudentAttendance(1L);
+    }
+
+    @Benchmark
+    public List<ScheduleDTO> scheduleMapToDTO() throws Throwable {
+        List<ScheduleDTO> dtos = new ArrayList<>(schedules.size());
+        for (Schedule schedule : schedules) {
+            dtos.add((ScheduleDTO) scheduleMapToDTO.invokeExact(scheduleService, schedule));
+        }
+        return dtos;
+    }
+}
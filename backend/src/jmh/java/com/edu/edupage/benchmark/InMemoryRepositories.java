@@ -0,0 +1,33 @@
+package com.edu.edupage.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for Spring Data repositories backed by plain collections. Only the methods a benchmark
+ * registers are implemented; anything else fails loudly so a benchmark never silently measures a no-op.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R of(Class<R> repositoryType, Map<String, Function<Object[], Object>> methods) {
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> {
+                        Function<Object[], Object> handler = methods.get(method.getName());
+                        if (handler == null) {
+                            throw new UnsupportedOperationException(
+                                    repositoryType.getSimpleName() + "." + method.getName());
+                        }
+                        yield handler.apply(args);
+                    }
+                });
+    }
+}
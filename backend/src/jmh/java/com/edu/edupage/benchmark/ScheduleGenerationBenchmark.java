@@ -0,0 +1,108 @@
+package com.edu.edupage.benchmark;
+
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.entity.*;
+import com.edu.edupage.enums.TimetableVersionStatus;
+import com.edu.edupage.repository.*;
+import com.edu.edupage.scheduling.AnnealingTimetableOptimizer;
+import com.edu.edupage.scheduling.GreedyTimetableSolver;
+import com.edu.edupage.service.ScheduleIndexService;
+import com.edu.edupage.service.ScheduleService;
+import com.edu.edupage.service.TimetableVersionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ScheduleService#generateSchedule} end to end (planning, greedy solve, saving, mapping) against
+ * in-memory repositories, so the numbers are solver and service overhead without database latency.
+ * Saved lessons are not kept: every invocation plans into the same empty draft, so nothing is activated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleGenerationBenchmark {
+
+    private static final long DRAFT_VERSION_ID = 1L;
+
+    @Param({ "10", "50", "200" })
+    public int classes;
+
+    private SchoolFixture school;
+    private ScheduleService scheduleService;
+    private AnnealingTimetableOptimizer optimizer;
+
+    @Setup
+    public void setUp() {
+        school = new SchoolFixture(classes);
+        optimizer = new AnnealingTimetableOptimizer(new ForkJoinPool(1));
+        AtomicLong ids = new AtomicLong();
+
+        ScheduleRepository scheduleRepository = InMemoryRepositories.of(ScheduleRepository.class, Map.of(
+                "findAllBookedLessons", args -> List.of(),
+                "saveAll", args -> {
+                    List<Schedule> saved = new ArrayList<>();
+                    for (Object schedule : (Iterable<?>) args[0]) {
+                        ((Schedule) schedule).setId(ids.incrementAndGet());
+                        saved.add((Schedule) schedule);
+                    }
+                    return saved;
+                }));
+        ClassGroupRepository classGroupRepository = InMemoryRepositories.of(ClassGroupRepository.class, Map.of(
+                "findAllById", args -> byIds(school.classGroups, (Collection<?>) args[0], ClassGroup::getId)));
+        TeacherRepository teacherRepository = InMemoryRepositories.of(TeacherRepository.class, Map.of(
+                "findAllWithUserByIdIn", args -> byIds(school.teachers, (Collection<?>) args[0], Teacher::getId)));
+        SubjectRepository subjectRepository = InMemoryRepositories.of(SubjectRepository.class, Map.of(
+                "findAllById", args -> byIds(school.subjects, (Collection<?>) args[0], Subject::getId)));
+        RoomRepository roomRepository = InMemoryRepositories.of(RoomRepository.class, Map.of(
+                "findAllByOrderByCapacityAscNameAsc", args -> school.rooms));
+        StudentRepository studentRepository = InMemoryRepositories.of(StudentRepository.class, Map.of(
+                "countByClassGroupIds", args -> ((Collection<?>) args[0]).stream()
+                        .map(id -> new Object[] { id, (long) SchoolFixture.STUDENTS_PER_CLASS })
+                        .toList()));
+
+        TimetableVersion draft = TimetableVersion.builder().id(DRAFT_VERSION_ID).name("Benchmark")
+                .status(TimetableVersionStatus.DRAFT).build();
+        TimetableVersionRepository versionRepository = InMemoryRepositories.of(TimetableVersionRepository.class,
+                Map.of("findByStatus", args -> Optional.of(TimetableVersion.builder().id(DRAFT_VERSION_ID + 1)
+                                .status(TimetableVersionStatus.ACTIVE).build()),
+                        "findById", args -> Optional.of(draft)));
+        TimetableVersionService versionService = new TimetableVersionService(versionRepository, scheduleRepository,
+                roomRepository, event -> {
+                });
+        versionService.loadActiveVersion();
+        school.request.setVersionId(DRAFT_VERSION_ID);
+
+        scheduleService = new ScheduleService(scheduleRepository, classGroupRepository, teacherRepository,
+                subjectRepository, roomRepository, studentRepository, new GreedyTimetableSolver(), optimizer,
+                new ScheduleIndexService(scheduleRepository, versionService), versionService, event -> {
+                });
+        ReflectionTestUtils.setField(scheduleService, "defaultTimeBudgetMillis", 3000L);
+        ReflectionTestUtils.setField(scheduleService, "maxTimeBudgetMillis", 30000L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        optimizer.close();
+    }
+
+    @Benchmark
+    public List<ScheduleDTO> generateGreedy() {
+        return scheduleService.generateSchedule(school.request);
+    }
+
+    private static <T> List<T> byIds(List<T> entities, Collection<?> ids, java.util.function.Function<T, Long> idGetter) {
+        return entities.stream().filter(entity -> ids.contains(idGetter.apply(entity))).toList();
+    }
+}
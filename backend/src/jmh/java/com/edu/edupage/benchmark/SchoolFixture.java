@@ -0,0 +1,80 @@
+package com.edu.edupage.benchmark;
+
+import com.edu.edupage.dto.GenerateScheduleRequest;
+import com.edu.edupage.entity.*;
+import com.edu.edupage.enums.RoomType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic school shared by the benchmarks: every class takes the same eight subjects (28 lessons a
+ * week) and each teacher teaches one subject to up to four classes.
+ */
+final class SchoolFixture {
+
+    static final int CLASSES_PER_TEACHER = 4;
+    static final int STUDENTS_PER_CLASS = 25;
+    private static final int[] HOURS_PER_WEEK = { 5, 5, 4, 4, 3, 3, 2, 2 };
+
+    final List<Subject> subjects = new ArrayList<>();
+    final List<ClassGroup> classGroups = new ArrayList<>();
+    final List<Teacher> teachers = new ArrayList<>();
+    final List<Room> rooms = new ArrayList<>();
+    final GenerateScheduleRequest request = new GenerateScheduleRequest();
+
+    SchoolFixture(int classCount) {
+        for (int i = 0; i < HOURS_PER_WEEK.length; i++) {
+            subjects.add(Subject.builder().id((long) i + 1).name("Subject " + (i + 1))
+                    .hoursPerWeek(HOURS_PER_WEEK[i]).build());
+        }
+        for (int i = 0; i < classCount; i++) {
+            classGroups.add(ClassGroup.builder().id((long) i + 1).name("C" + (i + 1)).grade(10).monthlyFee(0).build());
+            rooms.add(Room.builder().id((long) i + 1).name("R" + (i + 1)).capacity(30).type(RoomType.CLASSROOM).build());
+        }
+
+        List<GenerateScheduleRequest.TeacherSubjectMapping> mappings = new ArrayList<>();
+        for (Subject subject : subjects) {
+            for (int from = 0; from < classCount; from += CLASSES_PER_TEACHER) {
+                Teacher teacher = teacher(teachers.size() + 1L);
+                teachers.add(teacher);
+
+                GenerateScheduleRequest.TeacherSubjectMapping mapping = new GenerateScheduleRequest.TeacherSubjectMapping();
+                mapping.setTeacherId(teacher.getId());
+                mapping.setSubjectId(subject.getId());
+                mapping.setClassGroupIds(classGroups.subList(from, Math.min(from + CLASSES_PER_TEACHER, classCount))
+                        .stream().map(ClassGroup::getId).toList());
+                mappings.add(mapping);
+            }
+        }
+        request.setClassGroupIds(classGroups.stream().map(ClassGroup::getId).toList());
+        request.setTeacherSubjectMappings(mappings);
+    }
+
+    static Teacher teacher(long id) {
+        User user = User.builder().id(id).email("teacher" + id + "@school.test").firstName("Teacher")
+                .lastName(String.valueOf(id)).role(Role.TEACHER).build();
+        return Teacher.builder().id(id).user(user).build();
+    }
+
+    static Student student(long id, ClassGroup classGroup) {
+        User user = User.builder().id(id).email("student" + id + "@school.test").firstName("Student")
+                .lastName(String.valueOf(id)).role(Role.STUDENT).build();
+        return Student.builder().id(id).user(user).classGroup(classGroup).accountNumber("ACC" + id).build();
+    }
+
+    static Schedule schedule(long id, ClassGroup classGroup, Teacher teacher, Subject subject) {
+        int slot = (int) (id % 35);
+        LocalTime start = LocalTime.of(8, 0).plusHours(slot % 7);
+        return Schedule.builder().id(id).classGroup(classGroup).teacher(teacher).subject(subject)
+                .dayOfWeek(DayOfWeek.of(slot / 7 + 1)).startTime(start).endTime(start.plusMinutes(45))
+                .room("R" + classGroup.getId()).lessonNumber(slot % 7 + 1).build();
+    }
+
+    static LocalDate day(int offset) {
+        return LocalDate.of(2024, 9, 2).plusDays(offset);
+    }
+}
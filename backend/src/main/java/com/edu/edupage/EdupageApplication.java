@@ -5,9 +5,11 @@ import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.edu.edupage.repository")
+@EnableScheduling
 @OpenAPIDefinition(info = @Info(title = "EduPage API", version = "1.0", description = "EduPage School Management API"))
 public class EdupageApplication {
     public static void main(String[] args) {
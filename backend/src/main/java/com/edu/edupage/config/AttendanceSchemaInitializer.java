@@ -0,0 +1,40 @@
+package com.edu.edupage.config;
+
+import com.edu.edupage.repository.AttendanceCounterRepository;
+import com.edu.edupage.service.AttendancePartitionService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partitions attendance by month (see {@link AttendancePartitionService}), adds the unique key of the
+ * attendance counters, which needs NULLS NOT DISTINCT (PostgreSQL 15+) and so cannot be declared on the
+ * entity, and fills the counters once for attendance recorded before they existed.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceSchemaInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendancePartitionService attendancePartitionService;
+
+    @PostConstruct
+    public void apply() {
+        attendancePartitionService.partitionTable();
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_attendance_counters_key ON attendance_counters "
+                + "(student_id, subject_id, term_id, status) NULLS NOT DISTINCT");
+
+        Boolean missing = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM attendance_counters) "
+                + "AND EXISTS (SELECT 1 FROM attendance)", Boolean.class);
+        if (Boolean.TRUE.equals(missing)) {
+            int counters = jdbcTemplate.update(AttendanceCounterRepository.COUNT_FROM_ATTENDANCE);
+            log.info("Filled {} attendance counters from existing attendance", counters);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.edu.edupage.config;
+
+import com.edu.edupage.entity.AttendanceStatus;
+import com.edu.edupage.entity.Role;
+import com.edu.edupage.entity.Subject;
+import com.edu.edupage.enums.InvoiceStatus;
+import com.edu.edupage.enums.PaymentStatus;
+import com.edu.edupage.enums.RoomType;
+import com.edu.edupage.repository.AttendanceCounterRepository;
+import com.edu.edupage.repository.SubjectRepository;
+import com.edu.edupage.scheduling.*;
+import com.edu.edupage.service.AttendancePartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a reproducible, production-sized dataset: per school a full set of classes, students and teachers,
+ * a conflict-free timetable and a whole academic year of attendance, grades, invoices and payments.
+ * Rows go in through batched JDBC; ids of rows that others reference are reserved from the tables'
+ * identity sequences up front so nothing has to be read back.
+ */
+@Component
+@Profile("load-data")
+@Order(2) // after DataSeeder
+@RequiredArgsConstructor
+@Slf4j
+public class LargeSchoolDataGenerator implements CommandLineRunner {
+
+    private static final String NAME_PREFIX = "LD";
+    private static final int CLASSES_PER_TEACHER = 4;
+    private static final int[] SUBJECT_HOURS = { 4, 3, 3, 4, 3, 3, 3, 3 };
+    private static final String[] SUBJECT_NAMES = { "Mathematics", "Physics", "Computer Science", "Literature",
+            "History", "Biology", "Chemistry", "Physical Education" };
+    private static final String[] GRADE_TYPES = { "Homework", "Quiz", "Exam" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final SubjectRepository subjectRepository;
+    private final GreedyTimetableSolver greedySolver;
+    private final AttendancePartitionService attendancePartitionService;
+
+    @Value("${app.load-data.schools}")
+    private int schools;
+
+    @Value("${app.load-data.grades}")
+    private int grades;
+
+    @Value("${app.load-data.classes-per-grade}")
+    private int classesPerGrade;
+
+    @Value("${app.load-data.students-per-class}")
+    private int studentsPerClass;
+
+    @Value("${app.load-data.academic-year}")
+    private int academicYear;
+
+    @Value("${app.load-data.grades-per-subject-per-month}")
+    private int gradesPerSubjectPerMonth;
+
+    @Value("${app.load-data.password}")
+    private String password;
+
+    @Value("${app.load-data.seed}")
+    private long seed;
+
+    @Value("${app.load-data.batch-size}")
+    private int batchSize;
+
+    @Value("${app.load-data.writer-threads}")
+    private int writerThreads;
+
+    private ExecutorService writers;
+
+    private long insertedRows;
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM class_groups WHERE name LIKE ?", Integer.class, NAME_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            log.info("Synthetic school data already present, skipping");
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        List<Subject> subjects = ensureSubjects();
+        String passwordHash = passwordEncoder.encode(password);
+        Random random = new Random(seed);
+        // Bounded queue: a full queue makes the generating thread write the batch itself
+        writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writerThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (int school = 1; school <= schools; school++) {
+                generateSchool(school, subjects, passwordHash, random);
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        // Attendance went in behind the counters' back, after their one-time backfill at startup
+        long countingStartedAt = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM attendance_counters");
+        int counters = jdbcTemplate.update(AttendanceCounterRepository.COUNT_FROM_ATTENDANCE);
+        log.info("Recounted {} attendance counters in {} ms", counters, System.currentTimeMillis() - countingStartedAt);
+        log.info("Generated {} schools ({} rows) in {} ms", schools, insertedRows,
+                System.currentTimeMillis() - startedAt);
+    }
+
+    private List<Subject> ensureSubjects() {
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 0; i < SUBJECT_NAMES.length; i++) {
+            int hours = SUBJECT_HOURS[i];
+            String name = SUBJECT_NAMES[i];
+            subjects.add(subjectRepository.findByName(name).orElseGet(() -> subjectRepository.save(
+                    Subject.builder().name(name).description(name).hoursPerWeek(hours).build())));
+        }
+        return subjects;
+    }
+
+    private void generateSchool(int school, List<Subject> subjects, String passwordHash, Random random) {
+        String prefix = NAME_PREFIX + school + "-";
+        int classCount = grades * classesPerGrade;
+        int teachersPerSubject = (classCount + CLASSES_PER_TEACHER - 1) / CLASSES_PER_TEACHER;
+        LocalDateTime now = LocalDateTime.now();
+
+        // Classes with one homeroom each
+        List<Long> classIds = reserveIds("class_groups", classCount);
+        List<String> homerooms = new ArrayList<>();
+        int[] classFees = new int[classCount];
+        Batch classes = new Batch("class_groups",
+                "INSERT INTO class_groups (id, name, grade, monthly_fee) VALUES (?, ?, ?, ?)", false);
+        Batch rooms = new Batch("rooms", "INSERT INTO rooms (name, capacity, type) VALUES (?, ?, ?)", false);
+        for (int c = 0; c < classCount; c++) {
+            int grade = c / classesPerGrade + 1;
+            String name = prefix + grade + (char) ('A' + c % classesPerGrade);
+            classFees[c] = 2500 + grade * 100;
+            classes.add(classIds.get(c), name, grade, classFees[c]);
+            homerooms.add(name + " Room");
+            rooms.add(homerooms.get(c), studentsPerClass + 5, RoomType.CLASSROOM.name());
+        }
+        classes.finish();
+        rooms.finish();
+
+        // Teachers: one per subject and group of CLASSES_PER_TEACHER classes
+        int teacherCount = subjects.size() * teachersPerSubject;
+        List<Long> teacherUserIds = reserveIds("users", teacherCount);
+        List<Long> teacherIds = reserveIds("teachers", teacherCount);
+        Batch teacherUsers = usersBatch();
+        Batch teachers = new Batch("teachers",
+                "INSERT INTO teachers (id, user_id, employee_number) VALUES (?, ?, ?)", false);
+        Batch teacherSubjects = new Batch("teacher_subjects",
+                "INSERT INTO teacher_subjects (teacher_id, subject_id) VALUES (?, ?)", false);
+        for (int t = 0; t < teacherCount; t++) {
+            String login = prefix.toLowerCase() + "teacher" + (t + 1);
+            teacherUsers.add(teacherUserIds.get(t), login + "@load.test", passwordHash, "Teacher", String.valueOf(t + 1),
+                    Role.TEACHER.name(), now, now);
+            teachers.add(teacherIds.get(t), teacherUserIds.get(t), prefix + "T" + (t + 1));
+            teacherSubjects.add(teacherIds.get(t), subjects.get(t / teachersPerSubject).getId());
+        }
+        teacherUsers.finish();
+        teachers.finish();
+        teacherSubjects.finish();
+
+        // Students
+        int studentCount = classCount * studentsPerClass;
+        List<Long> studentUserIds = reserveIds("users", studentCount);
+        List<Long> studentIds = reserveIds("students", studentCount);
+        Batch studentUsers = usersBatch();
+        Batch students = new Batch("students", "INSERT INTO students "
+                + "(id, user_id, class_group_id, student_number, account_number) VALUES (?, ?, ?, ?, ?)", false);
+        for (int s = 0; s < studentCount; s++) {
+            String login = prefix.toLowerCase() + "student" + (s + 1);
+            studentUsers.add(studentUserIds.get(s), login + "@load.test", passwordHash, "Student", String.valueOf(s + 1),
+                    Role.STUDENT.name(), now, now);
+            // Nine digits, so never equal to the eight-digit numbers handed out at registration
+            students.add(studentIds.get(s), studentUserIds.get(s), classIds.get(s / studentsPerClass),
+                    prefix + "S" + (s + 1), String.valueOf(100_000_000L + studentIds.get(s)));
+        }
+        studentUsers.finish();
+        students.finish();
+
+        // Timetable, placed by the same solver the generate endpoint uses
+        SlotLayout layout = new SlotLayout(LocalTime.of(8, 0), LocalTime.of(15, 0), 45, 15);
+        List<LessonDemand> demands = new ArrayList<>();
+        List<int[]> demandIndexes = new ArrayList<>(); // class, subject, teacher
+        for (int c = 0; c < classCount; c++) {
+            for (int subject = 0; subject < subjects.size(); subject++) {
+                int teacher = subject * teachersPerSubject + c / CLASSES_PER_TEACHER;
+                for (int h = 0; h < subjects.get(subject).getHoursPerWeek(); h++) {
+                    demands.add(new LessonDemand(teacherIds.get(teacher), subjects.get(subject).getId(),
+                            classIds.get(c), List.of(homerooms.get(c))));
+                    demandIndexes.add(new int[] { c, subject, teacher });
+                }
+            }
+        }
+        TimetableSolution timetable = greedySolver.solve(
+                new TimetableProblem(layout, new OccupancyGrid(layout), demands));
+
+        List<Long> scheduleIds = reserveIds("schedules", demands.size() - timetable.unplacedCount());
+        EnumMap<DayOfWeek, List<long[]>> lessonsByDay = new EnumMap<>(DayOfWeek.class); // schedule, class, teacher user
+        Batch schedules = new Batch("schedules", "INSERT INTO schedules (id, class_group_id, teacher_id, "
+                + "subject_id, day_of_week, start_time, end_time, room, lesson_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", false);
+        int next = 0;
+        for (int i = 0; i < demands.size(); i++) {
+            if (!timetable.isPlaced(i)) {
+                continue;
+            }
+            LessonDemand demand = demands.get(i);
+            int day = layout.dayOfCell(timetable.cellOf(i));
+            int slot = layout.slotOfCell(timetable.cellOf(i));
+            long scheduleId = scheduleIds.get(next++);
+            schedules.add(scheduleId, demand.classGroupId(), demand.teacherId(), demand.subjectId(),
+                    layout.day(day).name(), layout.startOf(slot), layout.endOf(slot), timetable.roomOf(i), slot + 1);
+            lessonsByDay.computeIfAbsent(layout.day(day), d -> new ArrayList<>()).add(new long[] {
+                    scheduleId, demandIndexes.get(i)[0], teacherUserIds.get(demandIndexes.get(i)[2]) });
+        }
+        schedules.finish();
+
+        // A year of attendance: every lesson of every school day, for every student of the class
+        LocalDate firstDay = LocalDate.of(academicYear, 9, 1);
+        LocalDate lastDay = LocalDate.of(academicYear + 1, 5, 31);
+        attendancePartitionService.ensureMonths(YearMonth.from(firstDay), YearMonth.from(lastDay));
+        Batch attendance = new Batch("attendance", "INSERT INTO attendance "
+                + "(student_id, schedule_id, date, status, marked_by, marked_at) VALUES (?, ?, ?, ?, ?, ?)", true);
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            List<long[]> lessons = lessonsByDay.get(date.getDayOfWeek());
+            if (lessons == null) {
+                continue;
+            }
+            LocalDateTime markedAt = date.atTime(16, 0);
+            for (long[] lesson : lessons) {
+                int firstStudent = (int) lesson[1] * studentsPerClass;
+                for (int s = firstStudent; s < firstStudent + studentsPerClass; s++) {
+                    attendance.add(studentIds.get(s), lesson[0], date, attendanceStatus(random).name(),
+                            lesson[2], markedAt);
+                }
+            }
+        }
+        attendance.finish();
+
+        // Grades, invoices and payments per student and month
+        Batch gradeRows = new Batch("grades", "INSERT INTO grades (student_id, subject_id, teacher_id, "
+                + "grade_value, max_value, grade_type, description, date, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", true);
+        Batch invoices = new Batch("invoices", "INSERT INTO invoices (student_id, amount_due, amount_paid, "
+                + "due_date, status, year, month, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", true);
+        Batch payments = new Batch("payments", "INSERT INTO payments (student_id, amount, account_number, "
+                + "receipt_number, payment_status, processed_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", true);
+        for (int s = 0; s < studentCount; s++) {
+            long studentId = studentIds.get(s);
+            int c = s / studentsPerClass;
+            for (YearMonth month = YearMonth.from(firstDay); !month.isAfter(YearMonth.from(lastDay));
+                    month = month.plusMonths(1)) {
+                for (int subject = 0; subject < subjects.size(); subject++) {
+                    long teacherId = teacherIds.get(subject * teachersPerSubject + c / CLASSES_PER_TEACHER);
+                    for (int g = 0; g < gradesPerSubjectPerMonth; g++) {
+                        LocalDate date = month.atDay(1 + random.nextInt(month.lengthOfMonth()));
+                        gradeRows.add(studentId, subjects.get(subject).getId(), teacherId,
+                                (double) (50 + random.nextInt(51)), 100.0,
+                                GRADE_TYPES[random.nextInt(GRADE_TYPES.length)], null, date, date.atTime(17, 0));
+                    }
+                }
+
+                int due = classFees[c];
+                int paid = invoicePayment(due, random);
+                LocalDate dueDate = month.atDay(10);
+                invoices.add(studentId, due, paid, dueDate, invoiceStatus(due, paid).name(),
+                        month.getYear(), month.getMonthValue(), month.atDay(1).atStartOfDay(), dueDate.atStartOfDay());
+                if (paid > 0) {
+                    LocalDateTime paidAt = dueDate.minusDays(random.nextInt(9)).atTime(12, 0);
+                    payments.add(studentId, paid, String.valueOf(100_000_000L + studentId),
+                            prefix + "R" + studentId + "-" + month, PaymentStatus.APPROVED.name(), paidAt, paidAt);
+                }
+            }
+        }
+        gradeRows.finish();
+        invoices.finish();
+        payments.finish();
+
+        if (timetable.unplacedCount() > 0) {
+            log.warn("School {}: {} lessons did not fit the timetable", school, timetable.unplacedCount());
+        }
+    }
+
+    private Batch usersBatch() {
+        return new Batch("users", "INSERT INTO users (id, email, password, first_name, last_name, role, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", false);
+    }
+
+    /** Takes {@code count} values from the table's id sequence, so later inserts by the app never collide. */
+    private List<Long> reserveIds(String table, int count) {
+        return jdbcTemplate.queryForList("SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)",
+                Long.class, table, count);
+    }
+
+    private static AttendanceStatus attendanceStatus(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 90) {
+            return AttendanceStatus.PRESENT;
+        }
+        if (roll < 95) {
+            return AttendanceStatus.ABSENT;
+        }
+        return roll < 98 ? AttendanceStatus.LATE : AttendanceStatus.EXCUSED;
+    }
+
+    private static int invoicePayment(int due, Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 85) {
+            return due;
+        }
+        return roll < 92 ? due / 2 : 0;
+    }
+
+    private static InvoiceStatus invoiceStatus(int due, int paid) {
+        if (paid >= due) {
+            return InvoiceStatus.PAID;
+        }
+        return paid > 0 ? InvoiceStatus.PARTIALLY_PAID : InvoiceStatus.OVERDUE;
+    }
+
+    /**
+     * Buffers rows of one INSERT statement and sends them to the database {@code batchSize} at a time.
+     * Rows referencing another batch's rows must be added after them, and batches finished in that order.
+     * Batches of rows nothing references are written concurrently on the writer threads.
+     */
+    private final class Batch {
+
+        private final String table;
+        private final String sql;
+        private final boolean concurrent;
+        private final List<Future<?>> pending = new ArrayList<>();
+        private final AtomicLong count = new AtomicLong();
+        private List<Object[]> rows = new ArrayList<>();
+        private long startedAt;
+
+        Batch(String table, String sql, boolean concurrent) {
+            this.table = table;
+            this.sql = sql;
+            this.concurrent = concurrent;
+        }
+
+        void add(Object... row) {
+            if (startedAt == 0) {
+                startedAt = System.currentTimeMillis();
+            }
+            rows.add(row);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            try {
+                for (Future<?> write : pending) {
+                    write.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading " + table, e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause
+                        : new IllegalStateException("Loading " + table + " failed", e.getCause());
+            }
+            insertedRows += count.get();
+            log.info("Inserted {} {} rows in {} ms", count.get(), table,
+                    startedAt == 0 ? 0 : System.currentTimeMillis() - startedAt);
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<Object[]> chunk = rows;
+            rows = new ArrayList<>();
+            if (concurrent) {
+                pending.add(writers.submit(() -> write(chunk)));
+            } else {
+                write(chunk);
+            }
+        }
+
+        private void write(List<Object[]> chunk) {
+            jdbcTemplate.batchUpdate(sql, chunk);
+            count.addAndGet(chunk.size());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.edu.edupage.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the PostgreSQL exclusion constraints that make double-booking a teacher, class or room impossible
+ * within a timetable version, even when two lessons are created concurrently, and the index that allows
+ * only one active version. Hibernate cannot express these, so they are applied after it has created or
+ * updated the schema. Idempotent: existing constraints are left alone unless they predate versions.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleConstraintsInitializer {
+
+    public static final String TEACHER_NO_OVERLAP = "schedules_teacher_no_overlap";
+    public static final String CLASS_GROUP_NO_OVERLAP = "schedules_class_group_no_overlap";
+    public static final String ROOM_NO_OVERLAP = "schedules_room_no_overlap";
+
+    // Lessons are weekly, so times are placed on an arbitrary fixed date to form a half-open range
+    private static final String TIME_RANGE = "tsrange(DATE '2000-01-01' + start_time, DATE '2000-01-01' + end_time) WITH &&";
+
+    private static final String VERSION_COLUMN = "timetable_version_id";
+
+    private static final Map<String, String> CONSTRAINTS = Map.of(
+            TEACHER_NO_OVERLAP, VERSION_COLUMN + " WITH =, teacher_id WITH =, day_of_week WITH =, " + TIME_RANGE,
+            CLASS_GROUP_NO_OVERLAP, VERSION_COLUMN + " WITH =, class_group_id WITH =, day_of_week WITH =, " + TIME_RANGE,
+            ROOM_NO_OVERLAP, VERSION_COLUMN + " WITH =, room WITH =, day_of_week WITH =, " + TIME_RANGE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void apply() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS timetable_versions_single_active "
+                + "ON timetable_versions (status) WHERE status = 'ACTIVE'");
+
+        CONSTRAINTS.forEach((name, definition) -> {
+            List<String> existing = jdbcTemplate.queryForList(
+                    "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ?", String.class, name);
+            if (!existing.isEmpty()) {
+                if (existing.get(0).contains(VERSION_COLUMN)) {
+                    return;
+                }
+                // Created before timetable versions; it would stop drafts from repeating active lessons
+                jdbcTemplate.execute("ALTER TABLE schedules DROP CONSTRAINT " + name);
+            }
+            try {
+                jdbcTemplate.execute("ALTER TABLE schedules ADD CONSTRAINT " + name
+                        + " EXCLUDE USING gist (" + definition + ")");
+                log.info("Added schedule constraint {}", name);
+            } catch (DataAccessException e) {
+                // Typically overlapping lessons that predate the constraint; they have to be resolved first
+                log.error("Could not add schedule constraint {}: {}", name, e.getMostSpecificCause().getMessage());
+            }
+        });
+    }
+}
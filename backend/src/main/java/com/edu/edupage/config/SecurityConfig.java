@@ -42,6 +42,7 @@ public class SecurityConfig {
                 // Public endpoints
                 .requestMatchers("/api/auth/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/calendar/feeds/**").permitAll() // signed links for calendar apps
 
                 // Financial & Accountant Access
                 .requestMatchers("/api/payment/submit").hasRole("STUDENT")
@@ -0,0 +1,28 @@
+package com.edu.edupage.config;
+
+import com.edu.edupage.scheduling.AnnealingTimetableOptimizer;
+import com.edu.edupage.scheduling.GreedyTimetableSolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class TimetableSolverConfig {
+
+    // The pool is owned by the optimizer rather than exposed as a bean: any Executor bean would replace
+    // Spring Boot's applicationTaskExecutor.
+    @Bean
+    public AnnealingTimetableOptimizer annealingTimetableOptimizer(
+            @Value("${app.schedule.optimizer.parallelism:0}") int parallelism) {
+        // 0 means one annealing restart per available core
+        return new AnnealingTimetableOptimizer(
+                new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Bean
+    public GreedyTimetableSolver greedyTimetableSolver() {
+        return new GreedyTimetableSolver();
+    }
+}
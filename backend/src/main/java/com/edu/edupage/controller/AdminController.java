@@ -1,8 +1,11 @@
 package com.edu.edupage.controller;
 
 import com.edu.edupage.entity.*;
+import com.edu.edupage.enums.RoomType;
 import com.edu.edupage.exception.ResourceNotFoundException;
 import com.edu.edupage.repository.*;
+import com.edu.edupage.scheduling.TeacherAvailability;
+import com.edu.edupage.service.TimetableCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,6 +27,9 @@ public class AdminController {
         private final TeacherRepository teacherRepository;
         private final ClassGroupRepository classGroupRepository;
         private final SubjectRepository subjectRepository;
+        private final RoomRepository roomRepository;
+        private final ScheduleRepository scheduleRepository;
+        private final TimetableCacheService timetableCacheService;
 
         @GetMapping("/users")
         @PreAuthorize("hasRole('ADMIN')")
@@ -81,6 +87,7 @@ public class AdminController {
                 }
 
                 student = studentRepository.save(student);
+                timetableCacheService.evictUserTimetables();
                 return ResponseEntity.ok(mapToStudentDTO(student));
         }
 
@@ -102,6 +109,7 @@ public class AdminController {
                                 .peek(s -> s.setClassGroup(classGroup))
                                 .map(studentRepository::save)
                                 .collect(Collectors.toList());
+                timetableCacheService.evictUserTimetables();
 
                 return ResponseEntity.ok(students.stream().map(this::mapToStudentDTO).collect(Collectors.toList()));
         }
@@ -134,6 +142,32 @@ public class AdminController {
                 return ResponseEntity.ok(mapToTeacherDTO(teacher));
         }
 
+        @GetMapping("/teachers/{teacherId}/availability")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<TeacherAvailabilityDTO> getTeacherAvailability(@PathVariable Long teacherId) {
+                Teacher teacher = teacherRepository.findById(teacherId)
+                                .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", teacherId));
+                return ResponseEntity.ok(mapToAvailabilityDTO(teacher));
+        }
+
+        @PutMapping("/teachers/{teacherId}/availability")
+        @PreAuthorize("hasRole('ADMIN')")
+        @Transactional
+        public ResponseEntity<TeacherAvailabilityDTO> updateTeacherAvailability(
+                        @PathVariable Long teacherId,
+                        @RequestBody UpdateTeacherAvailabilityRequest request) {
+                Teacher teacher = teacherRepository.findById(teacherId)
+                                .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", teacherId));
+                if (request.maxLessonsPerDay() != null && request.maxLessonsPerDay() < 1) {
+                        throw new IllegalArgumentException("Max lessons per day must be at least 1");
+                }
+
+                teacher.setUnavailableBlocks(TeacherAvailability.encode(request.unavailable()));
+                teacher.setMaxLessonsPerDay(request.maxLessonsPerDay());
+                teacher = teacherRepository.save(teacher);
+                return ResponseEntity.ok(mapToAvailabilityDTO(teacher));
+        }
+
         @GetMapping("/class-groups")
         @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
         public ResponseEntity<List<ClassGroupDTO>> getAllClassGroups() {
@@ -165,12 +199,16 @@ public class AdminController {
                 ClassGroup classGroup = classGroupRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundException("ClassGroup", "id", id));
 
+                boolean renamed = !classGroup.getName().equals(request.name());
                 classGroup.setName(request.name());
                 classGroup.setGrade(request.grade());
                 if (request.monthlyFee() != null) {
                         classGroup.setMonthlyFee(request.monthlyFee());
                 }
                 classGroup = classGroupRepository.save(classGroup);
+                if (renamed) {
+                        timetableCacheService.classGroupRenamed(id);
+                }
                 return ResponseEntity.ok(mapToClassGroupDTO(classGroup));
         }
 
@@ -187,6 +225,7 @@ public class AdminController {
                 });
 
                 classGroupRepository.delete(classGroup);
+                timetableCacheService.evictUserTimetables();
                 return ResponseEntity.noContent().build();
         }
 
@@ -199,6 +238,78 @@ public class AdminController {
                                                 .collect(Collectors.toList()));
         }
 
+        @PutMapping("/subjects/{id}/room-type")
+        @PreAuthorize("hasRole('ADMIN')")
+        @Transactional
+        public ResponseEntity<SubjectDTO> updateSubjectRoomType(
+                        @PathVariable Long id,
+                        @RequestBody UpdateSubjectRoomTypeRequest request) {
+                Subject subject = subjectRepository.findById(id)
+                                .orElseThrow(() -> new ResourceNotFoundException("Subject", "id", id));
+
+                subject.setRequiredRoomType(request.roomType());
+                subject = subjectRepository.save(subject);
+                return ResponseEntity.ok(mapToSubjectDTO(subject));
+        }
+
+        @GetMapping("/rooms")
+        @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+        public ResponseEntity<List<RoomDTO>> getAllRooms() {
+                return ResponseEntity.ok(
+                                roomRepository.findAllByOrderByCapacityAscNameAsc().stream()
+                                                .map(this::mapToRoomDTO)
+                                                .collect(Collectors.toList()));
+        }
+
+        @PostMapping("/rooms")
+        @PreAuthorize("hasRole('ADMIN')")
+        @Transactional
+        public ResponseEntity<RoomDTO> createRoom(@RequestBody CreateRoomRequest request) {
+                Room room = Room.builder()
+                                .name(request.name())
+                                .capacity(request.capacity())
+                                .type(request.type() != null ? request.type() : RoomType.CLASSROOM)
+                                .build();
+                room = roomRepository.save(room);
+                return ResponseEntity.ok(mapToRoomDTO(room));
+        }
+
+        @PutMapping("/rooms/{id}")
+        @PreAuthorize("hasRole('ADMIN')")
+        @Transactional
+        public ResponseEntity<RoomDTO> updateRoom(
+                        @PathVariable Long id,
+                        @RequestBody CreateRoomRequest request) {
+                Room room = roomRepository.findById(id)
+                                .orElseThrow(() -> new ResourceNotFoundException("Room", "id", id));
+
+                // Schedules refer to rooms by name, so renaming would orphan existing lessons
+                if (request.capacity() != null) {
+                        room.setCapacity(request.capacity());
+                }
+                if (request.type() != null) {
+                        room.setType(request.type());
+                }
+                room = roomRepository.save(room);
+                return ResponseEntity.ok(mapToRoomDTO(room));
+        }
+
+        @DeleteMapping("/rooms/{id}")
+        @PreAuthorize("hasRole('ADMIN')")
+        @Transactional
+        public ResponseEntity<Void> deleteRoom(@PathVariable Long id) {
+                Room room = roomRepository.findById(id)
+                                .orElseThrow(() -> new ResourceNotFoundException("Room", "id", id));
+
+                // Drafts count too: activating one would fail on a room that is no longer in the inventory
+                if (scheduleRepository.isRoomInUse(room.getName())) {
+                        throw new IllegalArgumentException("Room " + room.getName()
+                                        + " is used by the active timetable or a draft");
+                }
+                roomRepository.delete(room);
+                return ResponseEntity.noContent().build();
+        }
+
         private UserDTO mapToUserDTO(User user) {
                 return new UserDTO(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
                                 user.getRole());
@@ -226,6 +337,12 @@ public class AdminController {
                                 teacher.getEmployeeNumber());
         }
 
+        private TeacherAvailabilityDTO mapToAvailabilityDTO(Teacher teacher) {
+                return new TeacherAvailabilityDTO(teacher.getId(),
+                                TeacherAvailability.decode(teacher.getUnavailableBlocks()),
+                                teacher.getMaxLessonsPerDay());
+        }
+
         private ClassGroupDTO mapToClassGroupDTO(ClassGroup classGroup) {
                 long studentCount = studentRepository.findByClassGroupId(classGroup.getId()).size();
                 return new ClassGroupDTO(
@@ -238,7 +355,11 @@ public class AdminController {
 
         private SubjectDTO mapToSubjectDTO(Subject subject) {
                 return new SubjectDTO(subject.getId(), subject.getName(), subject.getDescription(),
-                                subject.getHoursPerWeek());
+                                subject.getHoursPerWeek(), subject.getRequiredRoomType());
+        }
+
+        private RoomDTO mapToRoomDTO(Room room) {
+                return new RoomDTO(room.getId(), room.getName(), room.getCapacity(), room.getType());
         }
 
         public record UserDTO(Long id, String email, String firstName, String lastName, Role role) {
@@ -252,10 +373,18 @@ public class AdminController {
                         String employeeNumber) {
         }
 
+        public record TeacherAvailabilityDTO(Long teacherId, List<TeacherAvailability.Period> unavailable,
+                        Integer maxLessonsPerDay) {
+        }
+
         public record ClassGroupDTO(Long id, String name, Integer grade, Integer monthlyFee, Long studentCount) {
         }
 
-        public record SubjectDTO(Long id, String name, String description, Integer hoursPerWeek) {
+        public record SubjectDTO(Long id, String name, String description, Integer hoursPerWeek,
+                        RoomType requiredRoomType) {
+        }
+
+        public record RoomDTO(Long id, String name, Integer capacity, RoomType type) {
         }
 
         public record UpdateStudentClassRequest(Long classGroupId) {
@@ -272,4 +401,14 @@ public class AdminController {
 
         public record UpdateTeacherSubjectsRequest(List<Long> subjectIds) {
         }
+
+        public record UpdateTeacherAvailabilityRequest(List<TeacherAvailability.Period> unavailable,
+                        Integer maxLessonsPerDay) {
+        }
+
+        public record UpdateSubjectRoomTypeRequest(RoomType roomType) {
+        }
+
+        public record CreateRoomRequest(String name, Integer capacity, RoomType type) {
+        }
 }
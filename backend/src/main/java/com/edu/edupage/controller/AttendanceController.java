@@ -1,9 +1,13 @@
 package com.edu.edupage.controller;
 
 import com.edu.edupage.dto.AttendanceDTO;
+import com.edu.edupage.dto.AttendancePartitionDTO;
+import com.edu.edupage.dto.ClassAttendanceGridDTO;
 import com.edu.edupage.dto.MarkAttendanceRequest;
+import com.edu.edupage.dto.SubjectAttendanceDTO;
 import com.edu.edupage.entity.User;
 import com.edu.edupage.repository.StudentRepository;
+import com.edu.edupage.service.AttendancePartitionService;
 import com.edu.edupage.service.AttendanceService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +28,7 @@ public class AttendanceController {
 
     private final AttendanceService attendanceService;
     private final StudentRepository studentRepository;
+    private final AttendancePartitionService attendancePartitionService;
 
     @GetMapping
     @PreAuthorize("hasRole('STUDENT')")
@@ -54,6 +59,22 @@ public class AttendanceController {
         return ResponseEntity.ok(attendanceService.getStudentAttendanceStats(student.getId()));
     }
 
+    @GetMapping("/stats/subjects")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<List<SubjectAttendanceDTO>> getMySubjectAttendance(@AuthenticationPrincipal User user,
+            @RequestParam(required = false) Long termId) {
+        var student = studentRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new IllegalStateException("Student profile not found"));
+        return ResponseEntity.ok(attendanceService.getStudentSubjectAttendance(student.getId(), termId));
+    }
+
+    @GetMapping("/student/{studentId}/stats/subjects")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<List<SubjectAttendanceDTO>> getStudentSubjectAttendance(@PathVariable Long studentId,
+            @RequestParam(required = false) Long termId) {
+        return ResponseEntity.ok(attendanceService.getStudentSubjectAttendance(studentId, termId));
+    }
+
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
     public ResponseEntity<List<AttendanceDTO>> getStudentAttendance(@PathVariable Long studentId) {
@@ -75,4 +96,25 @@ public class AttendanceController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         return ResponseEntity.ok(attendanceService.getScheduleAttendance(scheduleId, date));
     }
+
+    @GetMapping("/class/{classGroupId}")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<ClassAttendanceGridDTO> getClassAttendanceGrid(
+            @PathVariable Long classGroupId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(attendanceService.getClassAttendanceGrid(classGroupId, date));
+    }
+
+    @GetMapping("/partitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendancePartitionDTO>> getPartitions() {
+        return ResponseEntity.ok(attendancePartitionService.getPartitions());
+    }
+
+    @PostMapping("/partitions/maintenance")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendancePartitionDTO>> runPartitionMaintenance() {
+        attendancePartitionService.runNightlyMaintenance();
+        return ResponseEntity.ok(attendancePartitionService.getPartitions());
+    }
 }
@@ -0,0 +1,190 @@
+package com.edu.edupage.controller;
+
+import com.edu.edupage.dto.CalendarExceptionDTO;
+import com.edu.edupage.dto.CalendarFeedLinkDTO;
+import com.edu.edupage.dto.CreateCalendarExceptionRequest;
+import com.edu.edupage.dto.CreateTermRequest;
+import com.edu.edupage.dto.LessonOccurrenceDTO;
+import com.edu.edupage.dto.TermDTO;
+import com.edu.edupage.entity.User;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.service.LessonOccurrenceService;
+import com.edu.edupage.service.TermCalendarService;
+import com.edu.edupage.service.TimetableCacheService;
+import com.edu.edupage.service.TimetableFeedService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+public class CalendarController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final TermCalendarService termCalendarService;
+    private final LessonOccurrenceService lessonOccurrenceService;
+    private final TimetableCacheService timetableCacheService;
+    private final TimetableFeedService timetableFeedService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/terms")
+    public ResponseEntity<List<TermDTO>> getTerms() {
+        return ResponseEntity.ok(termCalendarService.getTerms());
+    }
+
+    @PostMapping("/terms")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TermDTO> createTerm(@Valid @RequestBody CreateTermRequest request) {
+        return ResponseEntity.ok(termCalendarService.createTerm(request));
+    }
+
+    @DeleteMapping("/terms/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteTerm(@PathVariable Long id) {
+        termCalendarService.deleteTerm(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/exceptions")
+    public ResponseEntity<List<CalendarExceptionDTO>> getExceptions() {
+        return ResponseEntity.ok(termCalendarService.getExceptions());
+    }
+
+    @PostMapping("/exceptions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CalendarExceptionDTO> createException(
+            @Valid @RequestBody CreateCalendarExceptionRequest request) {
+        return ResponseEntity.ok(termCalendarService.createException(request));
+    }
+
+    @DeleteMapping("/exceptions/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteException(@PathVariable Long id) {
+        termCalendarService.deleteException(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/occurrences")
+    public ResponseEntity<StreamingResponseBody> getMyOccurrences(@AuthenticationPrincipal User user,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return occurrences(timetableCacheService.keyFor(user), from, to);
+    }
+
+    @GetMapping("/occurrences/class/{classGroupId}")
+    public ResponseEntity<StreamingResponseBody> getClassOccurrences(@PathVariable Long classGroupId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return occurrences(TimetableCacheService.TimetableKey.classGroup(classGroupId), from, to);
+    }
+
+    @GetMapping("/occurrences/teacher/{teacherId}")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getTeacherOccurrences(@PathVariable Long teacherId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return occurrences(TimetableCacheService.TimetableKey.teacher(teacherId), from, to);
+    }
+
+    @GetMapping("/feed-links/my")
+    public ResponseEntity<CalendarFeedLinkDTO> getMyFeedLink(@AuthenticationPrincipal User user) {
+        TimetableCacheService.TimetableKey key = timetableCacheService.keyFor(user);
+        if (key.scope() == TimetableCacheService.Scope.ALL) {
+            throw new IllegalArgumentException("Calendar feeds are available per class or per teacher only");
+        }
+        return feedLink(key);
+    }
+
+    @GetMapping("/feed-links/class/{classGroupId}")
+    public ResponseEntity<CalendarFeedLinkDTO> getClassFeedLink(@PathVariable Long classGroupId) {
+        return feedLink(TimetableCacheService.TimetableKey.classGroup(classGroupId));
+    }
+
+    @GetMapping("/feed-links/teacher/{teacherId}")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<CalendarFeedLinkDTO> getTeacherFeedLink(@PathVariable Long teacherId) {
+        return feedLink(TimetableCacheService.TimetableKey.teacher(teacherId));
+    }
+
+    /** Public: authorized by the token in the link instead of a login. */
+    @GetMapping("/feeds/class/{classGroupId}.ics")
+    public ResponseEntity<StreamingResponseBody> getClassFeed(@PathVariable Long classGroupId,
+            @RequestParam(required = false) String token, WebRequest request) {
+        return feed(TimetableCacheService.TimetableKey.classGroup(classGroupId), token, request);
+    }
+
+    /** Public: authorized by the token in the link instead of a login. */
+    @GetMapping("/feeds/teacher/{teacherId}.ics")
+    public ResponseEntity<StreamingResponseBody> getTeacherFeed(@PathVariable Long teacherId,
+            @RequestParam(required = false) String token, WebRequest request) {
+        return feed(TimetableCacheService.TimetableKey.teacher(teacherId), token, request);
+    }
+
+    private ResponseEntity<CalendarFeedLinkDTO> feedLink(TimetableCacheService.TimetableKey key) {
+        String scope = key.scope() == TimetableCacheService.Scope.TEACHER ? "teacher" : "class";
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/calendar/feeds/{scope}/{id}.ics")
+                .queryParam("token", timetableFeedService.token(key))
+                .buildAndExpand(scope, key.id())
+                .toUriString();
+        return ResponseEntity.ok(new CalendarFeedLinkDTO(url));
+    }
+
+    private ResponseEntity<StreamingResponseBody> feed(TimetableCacheService.TimetableKey key, String token,
+            WebRequest request) {
+        if (!timetableFeedService.isValidToken(key, token)) {
+            throw new ResourceNotFoundException("Calendar feed", "id", key.id());
+        }
+        if (request.checkNotModified(timetableFeedService.eTag(key))) {
+            return null;
+        }
+        TimetableFeedService.Feed feed = timetableFeedService.feed(key);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            timetableFeedService.write(feed, writer);
+        };
+        // checkNotModified has already set the ETag header
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(TEXT_CALENDAR)
+                .body(body);
+    }
+
+    /** Writes the occurrences as a JSON array while the months are being expanded. */
+    private ResponseEntity<StreamingResponseBody> occurrences(TimetableCacheService.TimetableKey key,
+            LocalDate from, LocalDate to) {
+        Stream<LessonOccurrenceDTO> occurrences = lessonOccurrenceService.occurrences(key, from, to);
+        StreamingResponseBody body = out -> {
+            try (occurrences; JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.writeStartArray();
+                for (Iterator<LessonOccurrenceDTO> it = occurrences.iterator(); it.hasNext(); ) {
+                    json.writeObject(it.next());
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,35 @@
+package com.edu.edupage.controller;
+
+import com.edu.edupage.dto.CheckInCodeDTO;
+import com.edu.edupage.dto.CheckInRequest;
+import com.edu.edupage.dto.CheckInResultDTO;
+import com.edu.edupage.entity.User;
+import com.edu.edupage.service.CheckInService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/check-in")
+@RequiredArgsConstructor
+public class CheckInController {
+
+    private final CheckInService checkInService;
+
+    /** Code to show in class today; poll again at rotatesAt. */
+    @GetMapping("/lessons/{scheduleId}/code")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<CheckInCodeDTO> getCode(@PathVariable Long scheduleId) {
+        return ResponseEntity.ok(checkInService.issueCode(scheduleId));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<CheckInResultDTO> checkIn(@Valid @RequestBody CheckInRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(checkInService.checkIn(request.getCode(), user.getId()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.edu.edupage.controller;
+
+import com.edu.edupage.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ExportService exportService;
+
+    /** Attendance in the range, of one class's lessons or, without classGroupId, of the whole school. */
+    @GetMapping("/attendance")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam(required = false) Long classGroupId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        exportService.checkExport(classGroupId, from, to);
+        return csv("attendance", classGroupId, from, to,
+                writer -> exportService.writeAttendance(classGroupId, from, to, writer));
+    }
+
+    /** Grades in the range, of one class's students or, without classGroupId, of the whole school. */
+    @GetMapping("/grades")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportGrades(
+            @RequestParam(required = false) Long classGroupId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        exportService.checkExport(classGroupId, from, to);
+        return csv("grades", classGroupId, from, to, writer -> exportService.writeGrades(classGroupId, from, to, writer));
+    }
+
+    private interface CsvWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> csv(String name, Long classGroupId, LocalDate from,
+            LocalDate to, CsvWriter csvWriter) {
+        String filename = name + (classGroupId != null ? "-class-" + classGroupId : "") + "-" + from + "-" + to + ".csv";
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csvWriter.write(writer);
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(TEXT_CSV)
+                .body(body);
+    }
+}
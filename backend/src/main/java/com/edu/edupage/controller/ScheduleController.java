@@ -1,20 +1,39 @@
 package com.edu.edupage.controller;
 
 import com.edu.edupage.dto.CreateScheduleRequest;
+import com.edu.edupage.dto.CurrentLessonDTO;
 import com.edu.edupage.dto.GenerateScheduleRequest;
+import com.edu.edupage.dto.RepairScheduleRequest;
+import com.edu.edupage.dto.ScheduleConflictReportDTO;
 import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.ScheduleGenerationJobDTO;
+import com.edu.edupage.dto.ScheduleRepairResultDTO;
+import com.edu.edupage.dto.ScheduleSimulationDTO;
+import com.edu.edupage.dto.SimulateScheduleRequest;
+import com.edu.edupage.dto.SubstituteSuggestionDTO;
 import com.edu.edupage.entity.User;
-import com.edu.edupage.repository.StudentRepository;
-import com.edu.edupage.repository.TeacherRepository;
+import com.edu.edupage.scheduling.ScheduleIntervalIndex;
+import com.edu.edupage.service.ScheduleAuditService;
+import com.edu.edupage.service.ScheduleGenerationJobService;
 import com.edu.edupage.service.ScheduleService;
+import com.edu.edupage.service.SubstituteTeacherService;
+import com.edu.edupage.service.TimetableCacheService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/schedule")
@@ -22,40 +41,46 @@ import java.util.List;
 public class ScheduleController {
 
     private final ScheduleService scheduleService;
-    private final StudentRepository studentRepository;
-    private final TeacherRepository teacherRepository;
+    private final ScheduleGenerationJobService generationJobService;
+    private final TimetableCacheService timetableCacheService;
+    private final ScheduleAuditService scheduleAuditService;
+    private final SubstituteTeacherService substituteTeacherService;
 
     @GetMapping("/week")
-    public ResponseEntity<List<ScheduleDTO>> getMyWeeklySchedule(@AuthenticationPrincipal User user) {
-        List<ScheduleDTO> schedule;
-
-        switch (user.getRole()) {
-            case STUDENT -> {
-                var student = studentRepository.findByUserId(user.getId())
-                        .orElseThrow(() -> new IllegalStateException("Student profile not found"));
-                schedule = scheduleService.getWeeklyScheduleForClass(student.getClassGroup().getId());
-            }
-            case TEACHER -> {
-                var teacher = teacherRepository.findByUserId(user.getId())
-                        .orElseThrow(() -> new IllegalStateException("Teacher profile not found"));
-                schedule = scheduleService.getWeeklyScheduleForTeacher(teacher.getId());
-            }
-            case ADMIN -> schedule = scheduleService.getAllSchedules();
-            default -> throw new IllegalStateException("Unknown role");
-        }
-
-        return ResponseEntity.ok(schedule);
+    public ResponseEntity<List<ScheduleDTO>> getMyWeeklySchedule(@AuthenticationPrincipal User user,
+            WebRequest request) {
+        return timetable(timetableCacheService.keyFor(user), request);
     }
 
     @GetMapping("/class/{classGroupId}")
-    public ResponseEntity<List<ScheduleDTO>> getClassSchedule(@PathVariable Long classGroupId) {
-        return ResponseEntity.ok(scheduleService.getWeeklyScheduleForClass(classGroupId));
+    public ResponseEntity<List<ScheduleDTO>> getClassSchedule(@PathVariable Long classGroupId, WebRequest request) {
+        return timetable(TimetableCacheService.TimetableKey.classGroup(classGroupId), request);
     }
 
     @GetMapping("/teacher/{teacherId}")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
-    public ResponseEntity<List<ScheduleDTO>> getTeacherSchedule(@PathVariable Long teacherId) {
-        return ResponseEntity.ok(scheduleService.getWeeklyScheduleForTeacher(teacherId));
+    public ResponseEntity<List<ScheduleDTO>> getTeacherSchedule(@PathVariable Long teacherId, WebRequest request) {
+        return timetable(TimetableCacheService.TimetableKey.teacher(teacherId), request);
+    }
+
+    /** Lesson in progress and the next one for exactly one of a class, teacher or room. */
+    @GetMapping("/now")
+    public ResponseEntity<CurrentLessonDTO> getCurrentLesson(@RequestParam(required = false) Long classGroupId,
+            @RequestParam(required = false) Long teacherId, @RequestParam(required = false) String room,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if ((classGroupId != null ? 1 : 0) + (teacherId != null ? 1 : 0) + (room != null ? 1 : 0) != 1) {
+            throw new IllegalArgumentException("Specify exactly one of classGroupId, teacherId or room");
+        }
+        LocalDateTime when = at != null ? at : LocalDateTime.now();
+        if (classGroupId != null) {
+            return ResponseEntity.ok(scheduleService.getCurrentLesson(ScheduleIntervalIndex.Resource.CLASS_GROUP,
+                    classGroupId, when));
+        }
+        if (teacherId != null) {
+            return ResponseEntity.ok(scheduleService.getCurrentLesson(ScheduleIntervalIndex.Resource.TEACHER,
+                    teacherId, when));
+        }
+        return ResponseEntity.ok(scheduleService.getCurrentLesson(ScheduleIntervalIndex.Resource.ROOM, room, when));
     }
 
     @PostMapping
@@ -70,10 +95,80 @@ public class ScheduleController {
         return ResponseEntity.ok(scheduleService.generateSchedule(request));
     }
 
+    @PostMapping("/generate/simulate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ScheduleSimulationDTO> simulateSchedule(
+            @Valid @RequestBody SimulateScheduleRequest request) {
+        return ResponseEntity.ok(scheduleService.simulateSchedule(request));
+    }
+
+    @PostMapping("/repair")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ScheduleRepairResultDTO> repairSchedule(@Valid @RequestBody RepairScheduleRequest request) {
+        return ResponseEntity.ok(scheduleService.repairSchedule(request));
+    }
+
+    @PostMapping("/generate/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ScheduleGenerationJobDTO> submitGenerationJob(
+            @Valid @RequestBody GenerateScheduleRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(generationJobService.submit(request));
+    }
+
+    @GetMapping("/generate/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ScheduleGenerationJobDTO> getGenerationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(generationJobService.getJob(jobId));
+    }
+
+    @GetMapping("/substitutes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SubstituteSuggestionDTO>> findSubstitutes(@RequestParam Long teacherId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "5") int limit) {
+        DayOfWeek day = (date != null ? date : LocalDate.now()).getDayOfWeek();
+        return ResponseEntity.ok(substituteTeacherService.findSubstitutes(teacherId, day, limit));
+    }
+
+    @GetMapping("/{id}/substitutes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SubstituteSuggestionDTO> findSubstitutesForLesson(@PathVariable Long id,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(substituteTeacherService.findSubstitutes(id, limit));
+    }
+
+    @PostMapping("/audit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ScheduleConflictReportDTO> runAudit() {
+        return ResponseEntity.ok(scheduleAuditService.runAudit());
+    }
+
+    @GetMapping("/audit/latest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ScheduleConflictReportDTO> getLatestAudit() {
+        ScheduleConflictReportDTO report = scheduleAuditService.getLatestReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteSchedule(@PathVariable Long id) {
         scheduleService.deleteSchedule(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Answers 304 when the client's If-None-Match still matches the timetable version, without loading it.
+     * no-cache (instead of the no-store Spring Security would add) lets clients keep the body and revalidate.
+     */
+    private ResponseEntity<List<ScheduleDTO>> timetable(TimetableCacheService.TimetableKey key, WebRequest request) {
+        if (request.checkNotModified(timetableCacheService.eTag(key))) {
+            return null;
+        }
+        TimetableCacheService.Timetable timetable = timetableCacheService.get(key);
+        return ResponseEntity.ok()
+                .eTag(timetable.eTag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(timetable.lessons());
+    }
 }
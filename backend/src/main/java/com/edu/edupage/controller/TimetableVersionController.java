@@ -0,0 +1,67 @@
+package com.edu.edupage.controller;
+
+import com.edu.edupage.dto.CreateTimetableVersionRequest;
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.TimetableValidationDTO;
+import com.edu.edupage.dto.TimetableVersionDTO;
+import com.edu.edupage.service.ScheduleService;
+import com.edu.edupage.service.TimetableVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/timetable-versions")
+@RequiredArgsConstructor
+public class TimetableVersionController {
+
+    private final TimetableVersionService timetableVersionService;
+    private final ScheduleService scheduleService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TimetableVersionDTO>> getVersions() {
+        return ResponseEntity.ok(timetableVersionService.getVersions());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableVersionDTO> getVersion(@PathVariable Long id) {
+        return ResponseEntity.ok(timetableVersionService.getVersion(id));
+    }
+
+    @GetMapping("/{id}/schedules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ScheduleDTO>> getSchedules(@PathVariable Long id) {
+        timetableVersionService.getVersion(id);
+        return ResponseEntity.ok(scheduleService.getSchedulesOfVersion(id));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableVersionDTO> createDraft(@RequestBody CreateTimetableVersionRequest request) {
+        return ResponseEntity.ok(timetableVersionService.createDraft(request));
+    }
+
+    @GetMapping("/{id}/validation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableValidationDTO> validate(@PathVariable Long id) {
+        return ResponseEntity.ok(timetableVersionService.validate(id));
+    }
+
+    @PostMapping("/{id}/activate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableVersionDTO> activate(@PathVariable Long id) {
+        return ResponseEntity.ok(timetableVersionService.activate(id));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteDraft(@PathVariable Long id) {
+        timetableVersionService.deleteDraft(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.edu.edupage.dto;
+
+import com.edu.edupage.entity.AttendanceStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/** One line of the attendance CSV export. */
+public record AttendanceExportRow(LocalDate date, String className, LocalTime lessonStart, String subjectName,
+        String teacherName, Long studentId, String studentName, AttendanceStatus status, String notes,
+        String markedByName, LocalDateTime markedAt) {
+}
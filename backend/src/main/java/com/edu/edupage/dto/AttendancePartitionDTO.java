@@ -0,0 +1,20 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendancePartitionDTO {
+    private String table;
+    private LocalDate from;
+    private LocalDate to; // exclusive; from and to are null for the default partition
+    private boolean archived;
+    private Long estimatedRows; // null until the table has been analyzed
+}
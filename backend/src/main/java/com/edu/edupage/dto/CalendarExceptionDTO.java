@@ -0,0 +1,22 @@
+package com.edu.edupage.dto;
+
+import com.edu.edupage.enums.CalendarExceptionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarExceptionDTO {
+    private Long id;
+    private LocalDate date;
+    private CalendarExceptionType type;
+    private DayOfWeek followsDayOfWeek;
+    private String description;
+}
@@ -0,0 +1,14 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeedLinkDTO {
+    private String url; // subscribe to this in a calendar app; it needs no login
+}
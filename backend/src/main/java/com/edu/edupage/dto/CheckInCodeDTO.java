@@ -0,0 +1,21 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInCodeDTO {
+    private Long scheduleId;
+    private LocalDate date;
+    private String code;
+    private LocalDateTime rotatesAt; // a new code should be fetched then; this one stays valid one period longer
+    private int checkedIn; // students checked in so far
+}
@@ -0,0 +1,10 @@
+package com.edu.edupage.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CheckInRequest {
+    @NotBlank(message = "Check-in code is required")
+    private String code;
+}
@@ -0,0 +1,42 @@
+package com.edu.edupage.dto;
+
+import com.edu.edupage.entity.AttendanceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassAttendanceGridDTO {
+    private Long classGroupId;
+    private LocalDate date;
+    private List<ScheduleDTO> lessons; // columns, by start time
+    private List<StudentRow> students;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentRow {
+        private Long studentId;
+        private String studentName;
+        private List<Mark> marks; // lessons not marked yet are missing
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mark {
+        private Long scheduleId;
+        private Long attendanceId;
+        private AttendanceStatus status;
+        private String notes;
+    }
+}
@@ -0,0 +1,20 @@
+package com.edu.edupage.dto;
+
+import com.edu.edupage.enums.CalendarExceptionType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Data
+public class CreateCalendarExceptionRequest {
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+
+    @NotNull(message = "Type is required")
+    private CalendarExceptionType type;
+
+    private DayOfWeek followsDayOfWeek; // required for SWAPPED_DAY
+    private String description;
+}
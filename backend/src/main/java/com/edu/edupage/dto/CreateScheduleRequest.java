@@ -28,4 +28,5 @@ public class CreateScheduleRequest {
 
     private String room;
     private Integer lessonNumber;
+    private Long versionId; // draft to add the lesson to; the active timetable when omitted
 }
@@ -0,0 +1,19 @@
+package com.edu.edupage.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class CreateTermRequest {
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate; // inclusive
+}
@@ -0,0 +1,10 @@
+package com.edu.edupage.dto;
+
+import lombok.Data;
+
+@Data
+public class CreateTimetableVersionRequest {
+    private String name;
+    private Long copyFromVersionId; // active version when omitted
+    private boolean empty; // start without lessons instead of copying
+}
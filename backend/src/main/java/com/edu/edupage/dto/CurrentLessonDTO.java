@@ -0,0 +1,19 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrentLessonDTO {
+    private LocalDateTime at;
+    private ScheduleDTO current; // null when nothing is in progress
+    private ScheduleDTO next; // null when there are no lessons at all
+    private LocalDateTime nextStartsAt;
+}
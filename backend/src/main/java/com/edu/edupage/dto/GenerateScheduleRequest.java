@@ -1,6 +1,8 @@
 package com.edu.edupage.dto;
 
+import com.edu.edupage.enums.ScheduleGenerationMode;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
 import java.time.LocalTime;
@@ -19,6 +21,13 @@ public class GenerateScheduleRequest {
     private Integer lessonDurationMinutes;
     private Integer breakDurationMinutes;
 
+    private Long versionId; // draft to generate into; omitted: a copy of the active timetable, activated when saved
+
+    private ScheduleGenerationMode mode; // GREEDY when omitted
+
+    @Positive(message = "Time budget must be positive")
+    private Long timeBudgetMillis; // OPTIMIZED only, capped by app.schedule.optimizer.max-time-budget-ms
+
     @Data
     public static class TeacherSubjectMapping {
         private Long teacherId;
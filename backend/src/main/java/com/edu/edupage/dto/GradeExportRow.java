@@ -0,0 +1,9 @@
+package com.edu.edupage.dto;
+
+import java.time.LocalDate;
+
+/** One line of the grade CSV export; the class is the student's current one. */
+public record GradeExportRow(LocalDate date, String className, Long studentId, String studentName,
+        String subjectName, String teacherName, String gradeType, Double value, Double maxValue,
+        String description) {
+}
@@ -0,0 +1,18 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** A weekly lesson on a particular date. On swapped days the lesson's day of week differs from the date's. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonOccurrenceDTO {
+    private LocalDate date;
+    private ScheduleDTO lesson;
+}
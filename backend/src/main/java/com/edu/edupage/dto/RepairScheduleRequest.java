@@ -0,0 +1,23 @@
+package com.edu.edupage.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes to apply to an existing timetable. {@code teacherSubjectMappings} are assignments to add or
+ * change (who teaches a subject to a class) and may be empty; the period layout and solver settings are
+ * those of a generation request.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class RepairScheduleRequest extends GenerateScheduleRequest {
+
+    private List<Long> removedTeacherIds;
+
+    private Map<Long, Long> replacementTeachers; // removed teacher id -> teacher taking over; dropped when absent
+
+    private Map<Long, Integer> hoursPerWeek; // subject id -> new weekly hours for every class taking it
+}
@@ -0,0 +1,44 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleConflictReportDTO {
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    private long lessonsScanned;
+    private long lessonsPerSecond;
+    private long conflictCount;
+    private Map<String, Long> conflictsByResource;
+    private boolean truncated; // more conflicts than app.schedule.audit.max-reported-conflicts
+    private List<Conflict> conflicts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Conflict {
+        private Long versionId;
+        private String resource;
+        private String resourceId;
+        private DayOfWeek dayOfWeek;
+        private Long firstScheduleId;
+        private LocalTime firstStartTime;
+        private LocalTime firstEndTime;
+        private Long secondScheduleId;
+        private LocalTime secondStartTime;
+        private LocalTime secondEndTime;
+    }
+}
@@ -0,0 +1,27 @@
+package com.edu.edupage.dto;
+
+import com.edu.edupage.enums.ScheduleGenerationPhase;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleGenerationJobDTO {
+    private UUID id;
+    private ScheduleGenerationPhase phase;
+    private int lessonsPlaced;
+    private int lessonsTotal;
+    private List<String> diagnostics;
+    private List<ScheduleDTO> schedules; // set once the job has completed
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
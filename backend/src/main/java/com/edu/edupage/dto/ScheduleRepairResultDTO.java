@@ -0,0 +1,24 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRepairResultDTO {
+    private Long versionId;
+    private boolean activated;
+    private int lessonsKept; // untouched, same period, room and teacher
+    private int lessonsReassigned; // same period, new teacher
+    private int lessonsRemoved;
+    private int lessonsUnplaced;
+    private List<ScheduleDTO> placedLessons;
+    private List<String> diagnostics;
+    private long elapsedMillis;
+}
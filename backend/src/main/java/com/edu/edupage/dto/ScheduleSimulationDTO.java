@@ -0,0 +1,37 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleSimulationDTO {
+    private List<ScheduleDTO> schedules; // candidate lessons, not saved
+    private int lessonsTotal;
+    private int lessonsPlaced;
+    private int lessonsUnplaced;
+    private int teacherGaps;
+    private int classGaps;
+    private long cost;
+    private long elapsedMillis;
+    private List<TeacherLoad> teacherLoads;
+    private List<String> diagnostics;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TeacherLoad {
+        private Long teacherId; // negative for additional teachers of the simulation
+        private String teacherName;
+        private int lessonsPerWeek; // existing lessons included
+        private int maxLessonsPerDay;
+        private int gaps;
+    }
+}
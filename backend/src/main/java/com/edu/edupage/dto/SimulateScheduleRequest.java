@@ -0,0 +1,38 @@
+package com.edu.edupage.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A generation request evaluated without saving anything. On top of the usual generation settings it can
+ * override subjects' weekly hours and add teachers that do not exist yet.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class SimulateScheduleRequest extends GenerateScheduleRequest {
+
+    private Map<Long, Integer> hoursPerWeek; // subject id -> hours, instead of Subject.hoursPerWeek
+
+    @Valid
+    private List<HypotheticalTeacher> additionalTeachers;
+
+    @Data
+    public static class HypotheticalTeacher {
+        @NotBlank(message = "First name is required")
+        private String firstName;
+
+        private String lastName;
+
+        @NotNull(message = "Subject ID is required")
+        private Long subjectId;
+
+        @NotNull(message = "Class group IDs are required")
+        private List<Long> classGroupIds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubjectAttendanceDTO {
+    private Long subjectId;
+    private String subjectName;
+    private long present;
+    private long absent;
+    private long late;
+    private long excused;
+    private long total;
+    private double attendanceRate; // (present + late) / total
+}
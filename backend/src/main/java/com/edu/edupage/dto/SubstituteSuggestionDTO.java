@@ -0,0 +1,30 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubstituteSuggestionDTO {
+    private ScheduleDTO lesson;
+    private List<Candidate> candidates; // best first
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidate {
+        private Long teacherId;
+        private String teacherName;
+        private boolean teachingThatDay;
+        private boolean adjacentLesson; // teaches right before or after, so no extra gap
+        private int lessonsThatDay;
+        private int lessonsPerWeek;
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermDTO {
+    private Long id;
+    private String name;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
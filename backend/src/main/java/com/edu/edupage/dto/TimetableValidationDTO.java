@@ -0,0 +1,19 @@
+package com.edu.edupage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableValidationDTO {
+    private Long versionId;
+    private boolean valid;
+    private int lessonCount;
+    private List<String> problems;
+}
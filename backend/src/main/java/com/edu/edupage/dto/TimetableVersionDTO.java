@@ -0,0 +1,23 @@
+package com.edu.edupage.dto;
+
+import com.edu.edupage.enums.TimetableVersionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableVersionDTO {
+    private Long id;
+    private String name;
+    private TimetableVersionStatus status;
+    private Long basedOnVersionId;
+    private long lessonCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime activatedAt;
+}
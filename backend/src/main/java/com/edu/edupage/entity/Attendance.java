@@ -7,7 +7,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance", uniqueConstraints = @UniqueConstraint(name = "uk_attendance_student_schedule_date",
+        columnNames = { "student_id", "schedule_id", "date" }), indexes = @Index(name = "idx_attendance_schedule_date",
+        columnList = "schedule_id, date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
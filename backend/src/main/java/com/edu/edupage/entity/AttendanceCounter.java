@@ -0,0 +1,40 @@
+package com.edu.edupage.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Number of attendance records per student, subject, term and status, kept in step with the attendance
+ * table by {@code AttendanceService.markAttendance} so that stats never scan attendance history. The
+ * unique key (with NULLS NOT DISTINCT, as lessons outside any term have no term) is added by
+ * {@code AttendanceSchemaInitializer}.
+ */
+@Entity
+@Table(name = "attendance_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subject_id", nullable = false)
+    private Subject subject;
+
+    private Long termId; // No foreign key: counters are rebuilt when terms change
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AttendanceStatus status;
+
+    @Column(nullable = false)
+    private Long lessonCount;
+}
@@ -0,0 +1,34 @@
+package com.edu.edupage.entity;
+
+import com.edu.edupage.enums.CalendarExceptionType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/** A date on which the weekly timetable does not apply as usual: a holiday or a day swapped with another. */
+@Entity
+@Table(name = "calendar_exceptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarException {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private LocalDate date;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CalendarExceptionType type;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek followsDayOfWeek; // SWAPPED_DAY only: whose lessons take place on this date
+
+    private String description;
+}
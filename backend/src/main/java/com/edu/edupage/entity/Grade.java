@@ -7,7 +7,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "grades")
+@Table(name = "grades", indexes = @Index(name = "idx_grades_date", columnList = "date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
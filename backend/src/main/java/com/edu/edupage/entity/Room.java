@@ -0,0 +1,28 @@
+package com.edu.edupage.entity;
+
+import com.edu.edupage.enums.RoomType;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "rooms")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Room {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String name; // e.g., "101", "Chemistry Lab" - stored on schedules as-is
+
+    @Column(nullable = false)
+    private Integer capacity; // Seats
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RoomType type;
+}
@@ -7,7 +7,11 @@ import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "schedules")
+@Table(name = "schedules", indexes = {
+        @Index(name = "idx_schedules_teacher_day_start", columnList = "teacher_id, day_of_week, start_time"),
+        @Index(name = "idx_schedules_class_day_start", columnList = "class_group_id, day_of_week, start_time"),
+        @Index(name = "idx_schedules_version", columnList = "timetable_version_id, day_of_week, start_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,6 +22,10 @@ public class Schedule {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "timetable_version_id")
+    private TimetableVersion version; // lessons written outside the application are adopted by the active version
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "class_group_id", nullable = false)
     private ClassGroup classGroup;
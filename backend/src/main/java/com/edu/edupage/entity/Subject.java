@@ -1,5 +1,6 @@
 package com.edu.edupage.entity;
 
+import com.edu.edupage.enums.RoomType;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,4 +23,7 @@ public class Subject {
 
     @Column(nullable = false)
     private Integer hoursPerWeek;
+
+    @Enumerated(EnumType.STRING)
+    private RoomType requiredRoomType; // CLASSROOM when not set
 }
@@ -2,6 +2,8 @@ package com.edu.edupage.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -28,4 +30,11 @@ public class Teacher {
     private Set<Subject> subjects = new HashSet<>();
 
     private String employeeNumber; // Optional employee ID
+
+    // Unavailable quarter hours per day of week, see TeacherAvailability; null when always available
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "unavailable_blocks")
+    private long[] unavailableBlocks;
+
+    private Integer maxLessonsPerDay; // No limit when null
 }
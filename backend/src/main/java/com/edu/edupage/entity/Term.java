@@ -0,0 +1,29 @@
+package com.edu.edupage.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/** A teaching period; lessons take place only on dates inside a term. */
+@Entity
+@Table(name = "terms")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Term {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name; // e.g., "Autumn 2026"
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate; // inclusive
+}
@@ -0,0 +1,43 @@
+package com.edu.edupage.entity;
+
+import com.edu.edupage.enums.TimetableVersionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A complete weekly timetable. Exactly one version is ACTIVE and visible to students and teachers;
+ * drafts are prepared and validated off to the side, and previously active versions are kept as
+ * ARCHIVED so they can be activated again.
+ */
+@Entity
+@Table(name = "timetable_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimetableVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TimetableVersionStatus status;
+
+    private Long basedOnVersionId; // version the draft's lessons were copied from
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime activatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
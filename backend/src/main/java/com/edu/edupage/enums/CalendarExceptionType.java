@@ -0,0 +1,6 @@
+package com.edu.edupage.enums;
+
+public enum CalendarExceptionType {
+    HOLIDAY, // no lessons
+    SWAPPED_DAY // lessons of another day of the week
+}
@@ -0,0 +1,9 @@
+package com.edu.edupage.enums;
+
+public enum RoomType {
+    CLASSROOM,
+    LAB,
+    COMPUTER_LAB,
+    GYM,
+    MUSIC
+}
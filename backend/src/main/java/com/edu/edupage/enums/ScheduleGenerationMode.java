@@ -0,0 +1,6 @@
+package com.edu.edupage.enums;
+
+public enum ScheduleGenerationMode {
+    GREEDY,
+    OPTIMIZED
+}
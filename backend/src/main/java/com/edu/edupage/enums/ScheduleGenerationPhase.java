@@ -0,0 +1,10 @@
+package com.edu.edupage.enums;
+
+public enum ScheduleGenerationPhase {
+    QUEUED,
+    LOADING,
+    SOLVING,
+    SAVING,
+    COMPLETED,
+    FAILED
+}
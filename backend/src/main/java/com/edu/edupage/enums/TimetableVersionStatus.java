@@ -0,0 +1,7 @@
+package com.edu.edupage.enums;
+
+public enum TimetableVersionStatus {
+    DRAFT,
+    ACTIVE,
+    ARCHIVED
+}
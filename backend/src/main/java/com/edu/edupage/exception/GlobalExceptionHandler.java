@@ -1,5 +1,6 @@
 package com.edu.edupage.exception;
 
+import com.edu.edupage.config.ScheduleConstraintsInitializer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -11,10 +12,16 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Map<String, String> SCHEDULE_OVERLAP_MESSAGES = Map.of(
+            ScheduleConstraintsInitializer.TEACHER_NO_OVERLAP, "Teacher has a conflicting schedule at this time",
+            ScheduleConstraintsInitializer.CLASS_GROUP_NO_OVERLAP, "Class has a conflicting schedule at this time",
+            ScheduleConstraintsInitializer.ROOM_NO_OVERLAP, "Room is already booked at this time");
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFound(ResourceNotFoundException ex) {
         ErrorResponse error = new ErrorResponse(
@@ -69,6 +76,11 @@ public class GlobalExceptionHandler {
             if (detailedMessage.contains("unique") || detailedMessage.contains("Unique")) {
                 message = "Entry already exists (Duplicate key violation)";
             }
+            for (Map.Entry<String, String> overlap : SCHEDULE_OVERLAP_MESSAGES.entrySet()) {
+                if (detailedMessage.contains(overlap.getKey())) {
+                    message = overlap.getValue();
+                }
+            }
         }
 
         ErrorResponse error = new ErrorResponse(
@@ -78,6 +90,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(RejectedExecutionException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Server is busy, please try again later",
+                LocalDateTime.now());
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         ErrorResponse error = new ErrorResponse(
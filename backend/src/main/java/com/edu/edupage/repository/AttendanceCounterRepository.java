@@ -0,0 +1,55 @@
+package com.edu.edupage.repository;
+
+import com.edu.edupage.entity.AttendanceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AttendanceCounterRepository extends JpaRepository<AttendanceCounter, Long> {
+
+    String COUNT_FROM_ATTENDANCE = "INSERT INTO attendance_counters " +
+            "(student_id, subject_id, term_id, status, lesson_count) " +
+            "SELECT a.student_id, s.subject_id, t.id, a.status, COUNT(*) FROM (" +
+            "SELECT student_id, schedule_id, date, status FROM attendance UNION ALL " +
+            "SELECT student_id, schedule_id, date, status FROM attendance_archive) a " +
+            "JOIN schedules s ON s.id = a.schedule_id " +
+            "LEFT JOIN terms t ON a.date BETWEEN t.start_date AND t.end_date " +
+            "GROUP BY a.student_id, s.subject_id, t.id, a.status";
+
+    @Query("SELECT c.status, SUM(c.lessonCount) FROM AttendanceCounter c WHERE c.student.id = :studentId " +
+            "GROUP BY c.status")
+    List<Object[]> sumByStatus(@Param("studentId") Long studentId);
+
+    /** (subjectId, subjectName, status, count) of a student, for one term or all of them. */
+    @Query("SELECT c.subject.id, c.subject.name, c.status, SUM(c.lessonCount) FROM AttendanceCounter c " +
+            "WHERE c.student.id = :studentId AND (:termId IS NULL OR c.termId = :termId) " +
+            "GROUP BY c.subject.id, c.subject.name, c.status ORDER BY c.subject.name")
+    List<Object[]> sumBySubjectAndStatus(@Param("studentId") Long studentId, @Param("termId") Long termId);
+
+    /** Adds the deltas to the counters of one subject and term; the arrays are parallel. */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_counters (student_id, subject_id, term_id, status, lesson_count) " +
+            "SELECT d.student_id, :subjectId, CAST(:termId AS bigint), d.status, d.delta " +
+            "FROM unnest(CAST(:studentIds AS bigint[]), CAST(:statuses AS varchar[]), CAST(:deltas AS bigint[])) " +
+            "AS d(student_id, status, delta) " +
+            "ON CONFLICT (student_id, subject_id, term_id, status) " +
+            "DO UPDATE SET lesson_count = attendance_counters.lesson_count + EXCLUDED.lesson_count",
+            nativeQuery = true)
+    int addAll(@Param("subjectId") Long subjectId, @Param("termId") Long termId,
+            @Param("studentIds") Long[] studentIds, @Param("statuses") String[] statuses,
+            @Param("deltas") Long[] deltas);
+
+    @Modifying
+    @Query(value = "DELETE FROM attendance_counters", nativeQuery = true)
+    int deleteAllCounters();
+
+    /** Recounts everything from live and archived attendance; run after {@link #deleteAllCounters()}. */
+    @Modifying
+    @Query(value = COUNT_FROM_ATTENDANCE, nativeQuery = true)
+    int countFromAttendance();
+}
@@ -1,15 +1,22 @@
 package com.edu.edupage.repository;
 
+import com.edu.edupage.dto.AttendanceDTO;
 import com.edu.edupage.entity.Attendance;
-import com.edu.edupage.entity.AttendanceStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
@@ -27,6 +34,86 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
 
     Optional<Attendance> findByStudentIdAndScheduleIdAndDate(Long studentId, Long scheduleId, LocalDate date);
 
-    @Query("SELECT COUNT(a) FROM Attendance a WHERE a.student.id = :studentId AND a.status = :status")
-    Long countByStudentAndStatus(@Param("studentId") Long studentId, @Param("status") AttendanceStatus status);
+    /** The lesson's attendance on that date, locked until the transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.schedule.id = :scheduleId AND a.date = :date")
+    List<Attendance> findForUpdateByScheduleIdAndDate(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
+
+    @Query("SELECT new com.edu.edupage.dto.AttendanceDTO(a.id, st.id, CONCAT(u.firstName, ' ', u.lastName), " +
+            "s.id, sub.name, a.date, a.status, a.notes, CONCAT(m.firstName, ' ', m.lastName), a.markedAt) " +
+            "FROM Attendance a JOIN a.student st JOIN st.user u JOIN a.schedule s JOIN s.subject sub " +
+            "LEFT JOIN a.markedBy m WHERE a.schedule.id = :scheduleId AND a.date = :date " +
+            "ORDER BY u.lastName, u.firstName")
+    List<AttendanceDTO> findDTOsByScheduleIdAndDate(@Param("scheduleId") Long scheduleId,
+            @Param("date") LocalDate date);
+
+    /**
+     * Every student of the class with their attendance on that date, one row per student and marked lesson
+     * (a single row with null attendance columns if none): studentId, studentName, scheduleId,
+     * attendanceId, status, notes.
+     */
+    @Query("SELECT st.id, CONCAT(u.firstName, ' ', u.lastName), a.schedule.id, a.id, a.status, a.notes " +
+            "FROM Student st JOIN st.user u LEFT JOIN Attendance a ON a.student = st AND a.date = :date " +
+            "WHERE st.classGroup.id = :classGroupId ORDER BY u.lastName, u.firstName, st.id")
+    List<Object[]> findClassDayGrid(@Param("classGroupId") Long classGroupId, @Param("date") LocalDate date);
+
+    /**
+     * Attendance of the whole school, or of one class's lessons, in date order; for CSV export. Archived
+     * academic years are read too, so this is plain SQL: date, className, lessonStart, subjectName,
+     * teacherName, studentId, studentName, status, notes, markedByName, markedAt.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT a.date, c.name, s.start_time, sub.name, tu.first_name || ' ' || tu.last_name, st.id, " +
+            "u.first_name || ' ' || u.last_name, a.status, a.notes, m.first_name || ' ' || m.last_name, a.marked_at " +
+            "FROM (SELECT student_id, schedule_id, date, status, notes, marked_by, marked_at FROM attendance " +
+            "WHERE date BETWEEN :from AND :to UNION ALL " +
+            "SELECT student_id, schedule_id, date, status, notes, marked_by, marked_at FROM attendance_archive " +
+            "WHERE date BETWEEN :from AND :to) a " +
+            "JOIN schedules s ON s.id = a.schedule_id JOIN class_groups c ON c.id = s.class_group_id " +
+            "JOIN subjects sub ON sub.id = s.subject_id JOIN teachers t ON t.id = s.teacher_id " +
+            "JOIN users tu ON tu.id = t.user_id JOIN students st ON st.id = a.student_id " +
+            "JOIN users u ON u.id = st.user_id LEFT JOIN users m ON m.id = a.marked_by " +
+            "WHERE CAST(:classGroupId AS bigint) IS NULL OR c.id = :classGroupId " +
+            "ORDER BY a.date, c.name, s.start_time, u.last_name, u.first_name", nativeQuery = true)
+    Stream<Object[]> streamForExport(@Param("classGroupId") Long classGroupId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Waits until no other transaction writes the attendance of that lesson on that date, and keeps others
+     * out until this one ends. Row locks alone cannot do this, as they miss the rows still to be inserted.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtextextended(CONCAT('attendance:', " +
+            "CAST(:scheduleId AS text), ':', CAST(:date AS text)), 0))) l", nativeQuery = true)
+    int lockLessonDay(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
+
+    /**
+     * Inserts or updates the attendance of several students for one lesson in a single statement; the
+     * arrays are parallel. Returns (id, student_id, marked_at) of every written row.
+     */
+    @Query(value = "INSERT INTO attendance (student_id, schedule_id, date, status, notes, marked_by, marked_at) " +
+            "SELECT r.student_id, :scheduleId, :date, r.status, r.notes, :markedBy, :markedAt " +
+            "FROM unnest(CAST(:studentIds AS bigint[]), CAST(:statuses AS varchar[]), CAST(:notes AS varchar[])) " +
+            "AS r(student_id, status, notes) " +
+            "ON CONFLICT (student_id, schedule_id, date) DO UPDATE SET status = EXCLUDED.status, " +
+            "notes = EXCLUDED.notes, marked_by = EXCLUDED.marked_by " +
+            "RETURNING id, student_id, marked_at", nativeQuery = true)
+    List<Object[]> upsertAll(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date,
+            @Param("markedBy") Long markedBy, @Param("markedAt") LocalDateTime markedAt,
+            @Param("studentIds") Long[] studentIds, @Param("statuses") String[] statuses,
+            @Param("notes") String[] notes);
+
+    /**
+     * Inserts attendance of several students for one lesson, leaving students who already have attendance
+     * for it alone; the arrays are parallel. Returns (student_id, status) of every inserted row.
+     */
+    @Query(value = "INSERT INTO attendance (student_id, schedule_id, date, status, marked_by, marked_at) " +
+            "SELECT r.student_id, :scheduleId, :date, r.status, r.marked_by, r.marked_at " +
+            "FROM unnest(CAST(:studentIds AS bigint[]), CAST(:statuses AS varchar[]), " +
+            "CAST(:markedBy AS bigint[]), CAST(:markedAt AS timestamp[])) " +
+            "AS r(student_id, status, marked_by, marked_at) " +
+            "ON CONFLICT (student_id, schedule_id, date) DO NOTHING " +
+            "RETURNING student_id, status", nativeQuery = true)
+    List<Object[]> insertAllAbsent(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date,
+            @Param("studentIds") Long[] studentIds, @Param("statuses") String[] statuses,
+            @Param("markedBy") Long[] markedBy, @Param("markedAt") LocalDateTime[] markedAt);
 }
@@ -0,0 +1,16 @@
+package com.edu.edupage.repository;
+
+import com.edu.edupage.entity.CalendarException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CalendarExceptionRepository extends JpaRepository<CalendarException, Long> {
+
+    List<CalendarException> findAllByOrderByDateAsc();
+
+    boolean existsByDate(LocalDate date);
+}
@@ -1,12 +1,18 @@
 package com.edu.edupage.repository;
 
+import com.edu.edupage.dto.GradeExportRow;
 import com.edu.edupage.entity.Grade;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface GradeRepository extends JpaRepository<Grade, Long> {
@@ -21,4 +27,15 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
 
     @Query("SELECT AVG(g.value) FROM Grade g WHERE g.student.id = :studentId AND g.subject.id = :subjectId")
     Double findAverageByStudentAndSubject(@Param("studentId") Long studentId, @Param("subjectId") Long subjectId);
+
+    /** Grades of the whole school, or of one class's students, in date order; for CSV export. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.edu.edupage.dto.GradeExportRow(g.date, c.name, st.id, CONCAT(u.firstName, ' ', u.lastName), " +
+            "sub.name, CONCAT(tu.firstName, ' ', tu.lastName), g.gradeType, g.value, g.maxValue, g.description) " +
+            "FROM Grade g JOIN g.student st JOIN st.user u LEFT JOIN st.classGroup c JOIN g.subject sub " +
+            "JOIN g.teacher t JOIN t.user tu " +
+            "WHERE g.date BETWEEN :from AND :to AND (:classGroupId IS NULL OR c.id = :classGroupId) " +
+            "ORDER BY g.date, c.name, u.lastName, u.firstName")
+    Stream<GradeExportRow> streamForExport(@Param("classGroupId") Long classGroupId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
 }
@@ -0,0 +1,17 @@
+package com.edu.edupage.repository;
+
+import com.edu.edupage.entity.Room;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RoomRepository extends JpaRepository<Room, Long> {
+    Optional<Room> findByName(String name);
+
+    boolean existsByName(String name);
+
+    List<Room> findAllByOrderByCapacityAscNameAsc();
+}
@@ -1,16 +1,25 @@
 package com.edu.edupage.repository;
 
+import com.edu.edupage.dto.ScheduleDTO;
 import com.edu.edupage.entity.Schedule;
 import com.edu.edupage.entity.ClassGroup;
 import com.edu.edupage.entity.Teacher;
+import com.edu.edupage.scheduling.BookedLesson;
+import com.edu.edupage.scheduling.VersionedLesson;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
-import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
@@ -30,23 +39,69 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
         @Query("SELECT s FROM Schedule s WHERE s.teacher.id = :teacherId ORDER BY s.dayOfWeek, s.startTime")
         List<Schedule> findWeeklyScheduleByTeacher(@Param("teacherId") Long teacherId);
 
-        @Query("SELECT s FROM Schedule s WHERE s.teacher.id = :teacherId AND s.dayOfWeek = :dayOfWeek " +
-                        "AND ((s.startTime <= :startTime AND s.endTime > :startTime) OR " +
-                        "(s.startTime < :endTime AND s.endTime >= :endTime) OR " +
-                        "(s.startTime >= :startTime AND s.endTime <= :endTime))")
-        List<Schedule> findConflictingTeacherSchedules(
-                        @Param("teacherId") Long teacherId,
-                        @Param("dayOfWeek") DayOfWeek dayOfWeek,
-                        @Param("startTime") LocalTime startTime,
-                        @Param("endTime") LocalTime endTime);
-
-        @Query("SELECT s FROM Schedule s WHERE s.classGroup.id = :classGroupId AND s.dayOfWeek = :dayOfWeek " +
-                        "AND ((s.startTime <= :startTime AND s.endTime > :startTime) OR " +
-                        "(s.startTime < :endTime AND s.endTime >= :endTime) OR " +
-                        "(s.startTime >= :startTime AND s.endTime <= :endTime))")
-        List<Schedule> findConflictingClassSchedules(
-                        @Param("classGroupId") Long classGroupId,
-                        @Param("dayOfWeek") DayOfWeek dayOfWeek,
-                        @Param("startTime") LocalTime startTime,
-                        @Param("endTime") LocalTime endTime);
+        // ScheduleDTO rows straight from one joined SELECT, for read paths that would otherwise load
+        // classGroup, teacher, teacher.user and subject lazily per lesson
+        String SCHEDULE_DTO_SELECT = "SELECT new com.edu.edupage.dto.ScheduleDTO(s.id, c.id, c.name, t.id, " +
+                        "CONCAT(u.firstName, ' ', u.lastName), sub.id, sub.name, s.dayOfWeek, s.startTime, s.endTime, " +
+                        "s.room, s.lessonNumber) FROM Schedule s JOIN s.classGroup c JOIN s.teacher t JOIN t.user u " +
+                        "JOIN s.subject sub ";
+
+        @Query(SCHEDULE_DTO_SELECT + "WHERE s.version.id = :versionId AND c.id = :classGroupId " +
+                        "ORDER BY s.dayOfWeek, s.startTime")
+        List<ScheduleDTO> findWeeklyScheduleDTOsByClassGroup(@Param("versionId") Long versionId,
+                        @Param("classGroupId") Long classGroupId);
+
+        @Query(SCHEDULE_DTO_SELECT + "WHERE s.version.id = :versionId AND t.id = :teacherId " +
+                        "ORDER BY s.dayOfWeek, s.startTime")
+        List<ScheduleDTO> findWeeklyScheduleDTOsByTeacher(@Param("versionId") Long versionId,
+                        @Param("teacherId") Long teacherId);
+
+        @Query(SCHEDULE_DTO_SELECT + "WHERE s.id = :id")
+        Optional<ScheduleDTO> findScheduleDTOById(@Param("id") Long id);
+
+        @Query(SCHEDULE_DTO_SELECT + "WHERE s.version.id = :versionId AND s.id = :id")
+        Optional<ScheduleDTO> findScheduleDTOById(@Param("versionId") Long versionId, @Param("id") Long id);
+
+        @Query(SCHEDULE_DTO_SELECT + "WHERE s.id IN :ids ORDER BY s.startTime")
+        List<ScheduleDTO> findScheduleDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query(SCHEDULE_DTO_SELECT + "WHERE s.version.id = :versionId ORDER BY s.id")
+        List<ScheduleDTO> findAllScheduleDTOs(@Param("versionId") Long versionId);
+
+        @Query("SELECT new com.edu.edupage.scheduling.BookedLesson(s.id, s.teacher.id, s.classGroup.id, s.room, " +
+                        "s.dayOfWeek, s.startTime, s.endTime) FROM Schedule s WHERE s.version.id = :versionId")
+        List<BookedLesson> findAllBookedLessons(@Param("versionId") Long versionId);
+
+        // Ordered so ScheduleConflictSweep sees each version's days in start order; served by idx_schedules_version
+        @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+        @Query("SELECT new com.edu.edupage.scheduling.VersionedLesson(s.version.id, s.id, s.teacher.id, " +
+                        "s.classGroup.id, s.room, s.dayOfWeek, s.startTime, s.endTime) FROM Schedule s " +
+                        "ORDER BY s.version.id, s.dayOfWeek, s.startTime")
+        Stream<VersionedLesson> streamAllOrderedByVersionDayAndStart();
+
+        /** Whether a lesson of the active timetable or of a draft is held in the room. */
+        @Query("SELECT COUNT(s) > 0 FROM Schedule s WHERE s.room = :room " +
+                        "AND s.version.status <> com.edu.edupage.enums.TimetableVersionStatus.ARCHIVED")
+        boolean isRoomInUse(@Param("room") String room);
+
+        @Query("SELECT s.version.id, COUNT(s) FROM Schedule s WHERE s.version IS NOT NULL GROUP BY s.version.id")
+        List<Object[]> countByVersion();
+
+        @Modifying
+        @Query(value = "INSERT INTO schedules (timetable_version_id, class_group_id, teacher_id, subject_id, " +
+                        "day_of_week, start_time, end_time, room, lesson_number) " +
+                        "SELECT :targetVersionId, class_group_id, teacher_id, subject_id, day_of_week, start_time, " +
+                        "end_time, room, lesson_number FROM schedules WHERE timetable_version_id = :sourceVersionId",
+                        nativeQuery = true)
+        int copyLessons(@Param("sourceVersionId") Long sourceVersionId, @Param("targetVersionId") Long targetVersionId);
+
+        @Modifying
+        @Query("DELETE FROM Schedule s WHERE s.version.id = :versionId")
+        int deleteByVersionId(@Param("versionId") Long versionId);
+
+        @Modifying
+        @Query(value = "UPDATE schedules SET timetable_version_id = :versionId WHERE timetable_version_id IS NULL",
+                        nativeQuery = true)
+        int adoptUnversionedLessons(@Param("versionId") Long versionId);
 }
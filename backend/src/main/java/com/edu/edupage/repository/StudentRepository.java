@@ -3,8 +3,11 @@ package com.edu.edupage.repository;
 import com.edu.edupage.entity.Student;
 import com.edu.edupage.entity.ClassGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +22,10 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     List<Student> findByClassGroup(ClassGroup classGroup);
 
     List<Student> findByClassGroupId(Long classGroupId);
+
+    @Query("SELECT s FROM Student s JOIN FETCH s.user WHERE s.id IN :ids")
+    List<Student> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.classGroup.id, COUNT(s) FROM Student s WHERE s.classGroup.id IN :classGroupIds GROUP BY s.classGroup.id")
+    List<Object[]> countByClassGroupIds(@Param("classGroupIds") Collection<Long> classGroupIds);
 }
@@ -2,11 +2,24 @@ package com.edu.edupage.repository;
 
 import com.edu.edupage.entity.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     Optional<Teacher> findByUserId(Long userId);
+
+    @Query("SELECT t FROM Teacher t JOIN FETCH t.user WHERE t.id IN :ids")
+    List<Teacher> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // (subject id, teacher id, teacher name, unavailable blocks, max lessons per day) for every teacher
+    // qualified for one of the subjects
+    @Query("SELECT s.id, t.id, CONCAT(u.firstName, ' ', u.lastName), t.unavailableBlocks, t.maxLessonsPerDay " +
+            "FROM Teacher t JOIN t.user u JOIN t.subjects s WHERE s.id IN :subjectIds")
+    List<Object[]> findQualifiedTeachers(@Param("subjectIds") Collection<Long> subjectIds);
 }
@@ -0,0 +1,19 @@
+package com.edu.edupage.repository;
+
+import com.edu.edupage.entity.Term;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TermRepository extends JpaRepository<Term, Long> {
+
+    List<Term> findAllByOrderByStartDateAsc();
+
+    @Query("SELECT COUNT(t) > 0 FROM Term t WHERE t.startDate <= :endDate AND t.endDate >= :startDate")
+    boolean existsOverlapping(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
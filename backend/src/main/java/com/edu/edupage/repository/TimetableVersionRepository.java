@@ -0,0 +1,30 @@
+package com.edu.edupage.repository;
+
+import com.edu.edupage.entity.TimetableVersion;
+import com.edu.edupage.enums.TimetableVersionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TimetableVersionRepository extends JpaRepository<TimetableVersion, Long> {
+    Optional<TimetableVersion> findByStatus(TimetableVersionStatus status);
+
+    List<TimetableVersion> findAllByOrderByIdDesc();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TimetableVersion v SET v.status = com.edu.edupage.enums.TimetableVersionStatus.ARCHIVED " +
+            "WHERE v.status = com.edu.edupage.enums.TimetableVersionStatus.ACTIVE AND v.id <> :id")
+    int archiveActiveExcept(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TimetableVersion v SET v.status = com.edu.edupage.enums.TimetableVersionStatus.ACTIVE, " +
+            "v.activatedAt = :activatedAt WHERE v.id = :id")
+    int markActive(@Param("id") Long id, @Param("activatedAt") LocalDateTime activatedAt);
+}
@@ -0,0 +1,469 @@
+package com.edu.edupage.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Multi-start simulated annealing over lesson placements. Every restart runs on its own thread of
+ * the given pool until the shared deadline and the cheapest placement found by any restart wins.
+ * <p>
+ * Cost = 1000 per unplaced lesson + 10 per idle period between a teacher's lessons of a day
+ * + 3 per extra lesson of the same subject for the same class on one day.
+ * <p>
+ * Rooms are a hard constraint: whenever a lesson that needs a room lands in a period it takes the first of
+ * its candidate rooms that is free there, looked up in a per-room bitmask per day.
+ */
+public class AnnealingTimetableOptimizer implements AutoCloseable {
+
+    static final long UNPLACED_COST = 1_000;
+    static final long TEACHER_GAP_COST = 10;
+    static final long SUBJECT_REPEAT_COST = 3;
+
+    private static final double START_TEMPERATURE = 2.0 * TEACHER_GAP_COST;
+    private static final double END_TEMPERATURE = 0.05;
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private final ForkJoinPool pool;
+
+    public AnnealingTimetableOptimizer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Optimizes until {@code budget} has elapsed. The first restart starts from {@code seed} (typically the
+     * greedy solution) so the result is never worse than it; the others start from random placements.
+     */
+    public TimetableSolution optimize(TimetableProblem problem, TimetableSolution seed, Duration budget) {
+        return optimize(problem, seed, budget, SolverProgress.NONE);
+    }
+
+    public TimetableSolution optimize(TimetableProblem problem, TimetableSolution seed, Duration budget,
+            SolverProgress progress) {
+        Model model = new Model(problem);
+        if (model.lessonCount == 0 || model.cellCount == 0) {
+            return seed;
+        }
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + budget.toNanos();
+        long baseSeed = startedAt ^ model.lessonCount;
+
+        List<ForkJoinTask<TimetableSolution>> restarts = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            TimetableSolution start = i == 0 ? seed : null;
+            long runSeed = baseSeed + i * 0x9E3779B97F4A7C15L;
+            restarts.add(pool.submit(() -> new Run(model, runSeed, start).anneal(deadline, progress)));
+        }
+
+        TimetableSolution best = null;
+        for (ForkJoinTask<TimetableSolution> restart : restarts) {
+            TimetableSolution candidate = restart.join();
+            if (best == null || candidate.getCost() < best.getCost()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /** {@code solution} with its cost under this optimizer's objective, e.g. for a greedy solution. */
+    public TimetableSolution evaluate(TimetableProblem problem, TimetableSolution solution) {
+        Model model = new Model(problem);
+        if (model.lessonCount == 0 || model.cellCount == 0) {
+            return solution;
+        }
+        return new TimetableSolution(solution.cells(), solution.rooms(), new Run(model, 0, solution).totalCost());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /** Dense, immutable view of the problem shared by all restarts. */
+    private static final class Model {
+        final int days;
+        final int slots;
+        final int cellCount;
+        final int lessonCount;
+        final int[] lessonTeacher;
+        final int[] lessonClass;
+        final int[] lessonCourse;
+        final int courseCount;
+        final long[] fixedTeacher;
+        final long[] blockedTeacher;
+        final int[] teacherLimit;
+        final long[] fixedClass;
+        final String[] roomNames;
+        final Map<String, Integer> roomIndex = new HashMap<>();
+        final int[][] lessonRooms;
+        final boolean[] lessonNeedsRoom;
+        final long[] fixedRoom;
+
+        Model(TimetableProblem problem) {
+            SlotLayout layout = problem.layout();
+            List<LessonDemand> lessons = problem.lessons();
+            days = layout.dayCount();
+            slots = layout.slotsPerDay();
+            cellCount = layout.cellCount();
+            lessonCount = lessons.size();
+            lessonTeacher = new int[lessonCount];
+            lessonClass = new int[lessonCount];
+            lessonCourse = new int[lessonCount];
+            lessonRooms = new int[lessonCount][];
+            lessonNeedsRoom = new boolean[lessonCount];
+
+            Map<Long, Integer> teachers = new HashMap<>();
+            Map<Long, Integer> classGroups = new HashMap<>();
+            Map<List<Long>, Integer> courses = new HashMap<>();
+            for (int i = 0; i < lessonCount; i++) {
+                LessonDemand lesson = lessons.get(i);
+                lessonTeacher[i] = teachers.computeIfAbsent(lesson.teacherId(), id -> teachers.size());
+                lessonClass[i] = classGroups.computeIfAbsent(lesson.classGroupId(), id -> classGroups.size());
+                lessonCourse[i] = courses.computeIfAbsent(List.of(lesson.classGroupId(), lesson.subjectId()),
+                        key -> courses.size());
+                lessonRooms[i] = lesson.rooms().stream()
+                        .mapToInt(room -> roomIndex.computeIfAbsent(room, name -> roomIndex.size()))
+                        .toArray();
+                lessonNeedsRoom[i] = lesson.needsRoom();
+            }
+            courseCount = courses.size();
+            roomNames = new String[roomIndex.size()];
+            roomIndex.forEach((name, r) -> roomNames[r] = name);
+
+            fixedTeacher = new long[teachers.size() * days];
+            blockedTeacher = new long[teachers.size() * days];
+            teacherLimit = new int[teachers.size()];
+            fixedClass = new long[classGroups.size() * days];
+            fixedRoom = new long[roomNames.length * days];
+            OccupancyGrid occupancy = problem.occupancy();
+            teachers.forEach((id, t) -> teacherLimit[t] = occupancy.teacherDailyLimit(id));
+            for (int day = 0; day < days; day++) {
+                final int d = day;
+                teachers.forEach((id, t) -> {
+                    fixedTeacher[t * days + d] = occupancy.teacherMask(id, d);
+                    blockedTeacher[t * days + d] = occupancy.teacherBlockedMask(id, d);
+                });
+                classGroups.forEach((id, c) -> fixedClass[c * days + d] = occupancy.classGroupMask(id, d));
+                roomIndex.forEach((name, r) -> fixedRoom[r * days + d] = occupancy.roomMask(name, d));
+            }
+        }
+    }
+
+    /** One annealing restart with its own mutable state. */
+    private static final class Run {
+        private static final int FIXED = -2;
+        private static final int EMPTY = -1;
+        private static final int NO_ROOM = -1;
+        private static final int NO_FREE_ROOM = -2;
+
+        private final Model m;
+        private final SplittableRandom random;
+        private final int[] cell;
+        private final int[] room;
+        private final long[] teacherBusy;
+        private final long[] roomBusy;
+        private final int[] classCellLesson;
+        private final int[] courseDay;
+        private final int[] scratchTeacherDays = new int[4];
+        private final int[] scratchCourseDays = new int[4];
+        private int unplaced;
+
+        Run(Model model, long seed, TimetableSolution start) {
+            this.m = model;
+            this.random = new SplittableRandom(seed);
+            this.cell = new int[m.lessonCount];
+            this.room = new int[m.lessonCount];
+            this.teacherBusy = m.fixedTeacher.clone();
+            this.roomBusy = m.fixedRoom.clone();
+            this.courseDay = new int[m.courseCount * m.days];
+            this.classCellLesson = new int[(m.fixedClass.length / m.days) * m.cellCount];
+            Arrays.fill(classCellLesson, EMPTY);
+            for (int c = 0; c < m.fixedClass.length / m.days; c++) {
+                for (int d = 0; d < m.days; d++) {
+                    long mask = m.fixedClass[c * m.days + d];
+                    for (int s = 0; s < m.slots; s++) {
+                        if ((mask & (1L << s)) != 0) {
+                            classCellLesson[c * m.cellCount + d * m.slots + s] = FIXED;
+                        }
+                    }
+                }
+            }
+
+            Arrays.fill(cell, TimetableSolution.UNPLACED);
+            Arrays.fill(room, NO_ROOM);
+            unplaced = m.lessonCount;
+            if (start != null) {
+                for (int l = 0; l < m.lessonCount; l++) {
+                    if (start.isPlaced(l)) {
+                        String name = start.roomOf(l);
+                        place(l, start.cellOf(l), name == null ? NO_ROOM : m.roomIndex.get(name));
+                    }
+                }
+            } else {
+                randomConstruction();
+            }
+        }
+
+        TimetableSolution anneal(long deadline, SolverProgress progress) {
+            long startedAt = System.nanoTime();
+            double span = Math.max(1, deadline - startedAt);
+            long cost = totalCost();
+            long bestCost = cost;
+            int[] best = cell.clone();
+            int[] bestRoom = room.clone();
+            int bestUnplaced = unplaced;
+            double temperature = START_TEMPERATURE;
+
+            for (long iteration = 0; ; iteration++) {
+                if (iteration % CLOCK_CHECK_INTERVAL == 0) {
+                    long now = System.nanoTime();
+                    if (now >= deadline || bestCost == 0) {
+                        break;
+                    }
+                    double elapsed = (now - startedAt) / span;
+                    temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, elapsed);
+                    progress.placed(m.lessonCount - bestUnplaced, m.lessonCount);
+                }
+
+                long delta = tryMove(temperature);
+                if (delta != Long.MIN_VALUE) {
+                    cost += delta;
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestUnplaced = unplaced;
+                        System.arraycopy(cell, 0, best, 0, cell.length);
+                        System.arraycopy(room, 0, bestRoom, 0, room.length);
+                    }
+                }
+            }
+            String[] rooms = new String[bestRoom.length];
+            for (int l = 0; l < bestRoom.length; l++) {
+                rooms[l] = bestRoom[l] == NO_ROOM ? null : m.roomNames[bestRoom[l]];
+            }
+            return new TimetableSolution(best, rooms, bestCost);
+        }
+
+        /**
+         * Moves a lesson to a random cell, swapping it with the lesson its class already has there.
+         * Returns the accepted cost delta, or {@link Long#MIN_VALUE} if the move was rejected.
+         */
+        private long tryMove(double temperature) {
+            int l = pickLesson();
+            int target = random.nextInt(m.cellCount);
+            int from = cell[l];
+            if (target == from) {
+                return Long.MIN_VALUE;
+            }
+            int c = m.lessonClass[l];
+            int other = classCellLesson[c * m.cellCount + target];
+            if (other == FIXED) {
+                return Long.MIN_VALUE;
+            }
+
+            long before = localCost(l, other, from, target) + unplaced * UNPLACED_COST;
+            int fromRoom = room[l];
+            int otherRoom = other != EMPTY ? room[other] : NO_ROOM;
+            remove(l);
+            if (other != EMPTY) {
+                remove(other);
+            }
+
+            int targetRoom = roomFor(l, target);
+            boolean feasible = targetRoom != NO_FREE_ROOM;
+            if (feasible) {
+                place(l, target, targetRoom);
+                // The displaced lesson takes the vacated cell, or drops out if the moved lesson was unplaced
+                if (other != EMPTY && from != TimetableSolution.UNPLACED) {
+                    int vacatedRoom = roomFor(other, from);
+                    if (vacatedRoom != NO_FREE_ROOM) {
+                        place(other, from, vacatedRoom);
+                    } else {
+                        remove(l);
+                        feasible = false;
+                    }
+                }
+            }
+            if (!feasible) {
+                restore(l, from, fromRoom, other, target, otherRoom);
+                return Long.MIN_VALUE;
+            }
+
+            long after = localCost(l, other, from, target) + unplaced * UNPLACED_COST;
+            long delta = after - before;
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                return delta;
+            }
+
+            remove(l);
+            if (other != EMPTY && cell[other] != TimetableSolution.UNPLACED) {
+                remove(other);
+            }
+            restore(l, from, fromRoom, other, target, otherRoom);
+            return Long.MIN_VALUE;
+        }
+
+        private void restore(int l, int from, int fromRoom, int other, int target, int otherRoom) {
+            if (from != TimetableSolution.UNPLACED) {
+                place(l, from, fromRoom);
+            }
+            if (other != EMPTY) {
+                place(other, target, otherRoom);
+            }
+        }
+
+        private int pickLesson() {
+            if (unplaced > 0 && random.nextBoolean()) {
+                int start = random.nextInt(m.lessonCount);
+                for (int i = 0; i < m.lessonCount; i++) {
+                    int l = (start + i) % m.lessonCount;
+                    if (cell[l] == TimetableSolution.UNPLACED) {
+                        return l;
+                    }
+                }
+            }
+            return random.nextInt(m.lessonCount);
+        }
+
+        private void randomConstruction() {
+            int[] order = new int[m.lessonCount];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            for (int l : order) {
+                int offset = random.nextInt(m.cellCount);
+                for (int i = 0; i < m.cellCount; i++) {
+                    int target = (offset + i) % m.cellCount;
+                    if (classCellLesson[m.lessonClass[l] * m.cellCount + target] != EMPTY) {
+                        continue;
+                    }
+                    int targetRoom = roomFor(l, target);
+                    if (targetRoom != NO_FREE_ROOM) {
+                        place(l, target, targetRoom);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Room lesson {@code l} would use in {@code target}: {@link #NO_ROOM} if it needs none, or
+         * {@link #NO_FREE_ROOM} if its teacher is busy, unavailable or at their daily limit then, or all of
+         * its candidate rooms are busy.
+         */
+        private int roomFor(int l, int target) {
+            int day = target / m.slots;
+            long bit = 1L << (target % m.slots);
+            int t = m.lessonTeacher[l];
+            long busy = teacherBusy[t * m.days + day];
+            if (((busy | m.blockedTeacher[t * m.days + day]) & bit) != 0
+                    || Long.bitCount(busy) >= m.teacherLimit[t]) {
+                return NO_FREE_ROOM;
+            }
+            if (!m.lessonNeedsRoom[l]) {
+                return NO_ROOM;
+            }
+            for (int r : m.lessonRooms[l]) {
+                if ((roomBusy[r * m.days + day] & bit) == 0) {
+                    return r;
+                }
+            }
+            return NO_FREE_ROOM;
+        }
+
+        private void place(int l, int target, int r) {
+            int day = target / m.slots;
+            long bit = 1L << (target % m.slots);
+            teacherBusy[m.lessonTeacher[l] * m.days + day] |= bit;
+            if (r != NO_ROOM) {
+                roomBusy[r * m.days + day] |= bit;
+            }
+            room[l] = r;
+            classCellLesson[m.lessonClass[l] * m.cellCount + target] = l;
+            courseDay[m.lessonCourse[l] * m.days + day]++;
+            cell[l] = target;
+            unplaced--;
+        }
+
+        private void remove(int l) {
+            int current = cell[l];
+            if (current == TimetableSolution.UNPLACED) {
+                return;
+            }
+            int day = current / m.slots;
+            long bit = 1L << (current % m.slots);
+            teacherBusy[m.lessonTeacher[l] * m.days + day] &= ~bit;
+            if (room[l] != NO_ROOM) {
+                roomBusy[room[l] * m.days + day] &= ~bit;
+                room[l] = NO_ROOM;
+            }
+            classCellLesson[m.lessonClass[l] * m.cellCount + current] = EMPTY;
+            courseDay[m.lessonCourse[l] * m.days + day]--;
+            cell[l] = TimetableSolution.UNPLACED;
+            unplaced++;
+        }
+
+        /** Gap and repeat cost of the teacher-days and course-days touched by a move. */
+        private long localCost(int l, int other, int from, int target) {
+            int teacherDays = 0;
+            int courseDays = 0;
+            int[] lessons = { l, other };
+            int[] cells = { from, target };
+            for (int lesson : lessons) {
+                if (lesson < 0) {
+                    continue;
+                }
+                for (int c : cells) {
+                    if (c == TimetableSolution.UNPLACED) {
+                        continue;
+                    }
+                    int day = c / m.slots;
+                    teacherDays = addUnique(scratchTeacherDays, teacherDays, m.lessonTeacher[lesson] * m.days + day);
+                    courseDays = addUnique(scratchCourseDays, courseDays, m.lessonCourse[lesson] * m.days + day);
+                }
+            }
+
+            long cost = 0;
+            for (int i = 0; i < teacherDays; i++) {
+                cost += OccupancyGrid.idleGaps(teacherBusy[scratchTeacherDays[i]]) * TEACHER_GAP_COST;
+            }
+            for (int i = 0; i < courseDays; i++) {
+                cost += Math.max(0, courseDay[scratchCourseDays[i]] - 1) * SUBJECT_REPEAT_COST;
+            }
+            return cost;
+        }
+
+        private long totalCost() {
+            long cost = unplaced * UNPLACED_COST;
+            for (long mask : teacherBusy) {
+                cost += OccupancyGrid.idleGaps(mask) * TEACHER_GAP_COST;
+            }
+            for (int count : courseDay) {
+                cost += Math.max(0, count - 1) * SUBJECT_REPEAT_COST;
+            }
+            return cost;
+        }
+
+        private static int addUnique(int[] keys, int size, int key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return size;
+                }
+            }
+            keys[size] = key;
+            return size + 1;
+        }
+    }
+}
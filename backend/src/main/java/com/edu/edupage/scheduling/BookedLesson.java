@@ -0,0 +1,12 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Identifier-only view of a stored lesson: just enough to know which teacher, class and room
+ * are busy and when, without loading the related entities.
+ */
+public record BookedLesson(Long id, Long teacherId, Long classGroupId, String room,
+        DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+}
@@ -0,0 +1,142 @@
+package com.edu.edupage.scheduling;
+
+import java.util.Arrays;
+
+/**
+ * Immutable lessons of one resource on one day, sorted by start time, with a running maximum of end
+ * times so that an overlap test is a single binary search. Updates return a new instance.
+ */
+final class DayIntervals {
+
+    static final DayIntervals EMPTY = new DayIntervals(new long[0], new int[0], new int[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds;
+
+    private DayIntervals(long[] ids, int[] starts, int[] ends, int[] maxEnds) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = maxEnds;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int i) {
+        return ids[i];
+    }
+
+    int start(int i) {
+        return starts[i];
+    }
+
+    int end(int i) {
+        return ends[i];
+    }
+
+    /** Id of a lesson overlapping {@code [start, end)} other than {@code excludeId}, or -1. */
+    long findOverlap(int start, int end, long excludeId) {
+        // Only lessons starting before the end of the query can overlap it
+        for (int i = firstStartingAtOrAfter(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start && ids[i] != excludeId) {
+                return ids[i];
+            }
+        }
+        return -1;
+    }
+
+    /** Id of a lesson running at {@code time} (started at or before it, ending after it), or -1. */
+    long findRunningAt(int time) {
+        for (int i = firstStartingAtOrAfter(time + 1) - 1; i >= 0 && maxEnds[i] > time; i--) {
+            if (ends[i] > time) {
+                return ids[i];
+            }
+        }
+        return -1;
+    }
+
+    /** Id of the first lesson starting after {@code time}, or -1. */
+    long findStartingAfter(int time) {
+        int i = firstStartingAtOrAfter(time + 1);
+        return i < ids.length ? ids[i] : -1;
+    }
+
+    /** Index of the first lesson starting at or after {@code time}. */
+    int firstStartingAtOrAfter(int time) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    DayIntervals with(long id, int start, int end) {
+        DayIntervals base = without(id);
+        int n = base.size();
+        int at = base.firstStartingAtOrAfter(start);
+        long[] newIds = new long[n + 1];
+        int[] newStarts = new int[n + 1];
+        int[] newEnds = new int[n + 1];
+        copyInserting(base.ids, newIds, at, id);
+        copyInserting(base.starts, newStarts, at, start);
+        copyInserting(base.ends, newEnds, at, end);
+        return new DayIntervals(newIds, newStarts, newEnds, runningMax(newEnds));
+    }
+
+    DayIntervals without(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                if (ids.length == 1) {
+                    return EMPTY;
+                }
+                long[] newIds = removeAt(ids, i);
+                int[] newStarts = removeAt(starts, i);
+                int[] newEnds = removeAt(ends, i);
+                return new DayIntervals(newIds, newStarts, newEnds, runningMax(newEnds));
+            }
+        }
+        return this;
+    }
+
+    private static int[] runningMax(int[] values) {
+        int[] max = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            max[i] = i == 0 ? values[i] : Math.max(max[i - 1], values[i]);
+        }
+        return max;
+    }
+
+    private static void copyInserting(long[] source, long[] target, int at, long value) {
+        System.arraycopy(source, 0, target, 0, at);
+        target[at] = value;
+        System.arraycopy(source, at, target, at + 1, source.length - at);
+    }
+
+    private static void copyInserting(int[] source, int[] target, int at, int value) {
+        System.arraycopy(source, 0, target, 0, at);
+        target[at] = value;
+        System.arraycopy(source, at, target, at + 1, source.length - at);
+    }
+
+    private static long[] removeAt(long[] source, int at) {
+        long[] target = Arrays.copyOf(source, source.length - 1);
+        System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+        return target;
+    }
+
+    private static int[] removeAt(int[] source, int at) {
+        int[] target = Arrays.copyOf(source, source.length - 1);
+        System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+        return target;
+    }
+}
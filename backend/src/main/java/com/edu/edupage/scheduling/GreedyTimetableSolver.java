@@ -0,0 +1,47 @@
+package com.edu.edupage.scheduling;
+
+import java.util.List;
+
+/**
+ * Places lessons in request order into the first free period, walking Monday to Friday and
+ * each day from the first period on. Lessons that need a room take the first candidate room that is free.
+ * The solution has no cost of its own; {@link AnnealingTimetableOptimizer#evaluate} gives it one.
+ */
+public class GreedyTimetableSolver {
+
+    public TimetableSolution solve(TimetableProblem problem) {
+        return solve(problem, SolverProgress.NONE);
+    }
+
+    public TimetableSolution solve(TimetableProblem problem, SolverProgress progress) {
+        SlotLayout layout = problem.layout();
+        OccupancyGrid grid = problem.occupancy().copy();
+        List<LessonDemand> lessons = problem.lessons();
+        int[] cells = new int[lessons.size()];
+        String[] rooms = new String[lessons.size()];
+        int placed = 0;
+
+        for (int i = 0; i < lessons.size(); i++) {
+            LessonDemand lesson = lessons.get(i);
+            cells[i] = TimetableSolution.UNPLACED;
+
+            search: for (int day = 0; day < layout.dayCount(); day++) {
+                for (int slot = 0; slot < layout.slotsPerDay(); slot++) {
+                    if (!grid.isFree(lesson.teacherId(), lesson.classGroupId(), day, slot)) {
+                        continue;
+                    }
+                    String room = lesson.needsRoom() ? grid.freeRoom(lesson.rooms(), day, slot) : null;
+                    if (room != null || !lesson.needsRoom()) {
+                        grid.place(lesson.teacherId(), lesson.classGroupId(), room, day, slot);
+                        cells[i] = layout.cell(day, slot);
+                        rooms[i] = room;
+                        progress.placed(++placed, lessons.size());
+                        break search;
+                    }
+                }
+            }
+        }
+
+        return new TimetableSolution(cells, rooms, 0L);
+    }
+}
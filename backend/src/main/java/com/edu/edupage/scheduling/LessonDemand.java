@@ -0,0 +1,19 @@
+package com.edu.edupage.scheduling;
+
+import java.util.List;
+
+/**
+ * One weekly lesson that still has to be put on the timetable. {@code rooms} lists the rooms it may use,
+ * best fit first. A lesson that does not need a room is placed without one; a lesson that needs a room
+ * but has no candidates stays unplaced.
+ */
+public record LessonDemand(Long teacherId, Long subjectId, Long classGroupId, List<String> rooms, boolean needsRoom) {
+
+    public LessonDemand(Long teacherId, Long subjectId, Long classGroupId) {
+        this(teacherId, subjectId, classGroupId, List.of(), false);
+    }
+
+    public LessonDemand(Long teacherId, Long subjectId, Long classGroupId, List<String> rooms) {
+        this(teacherId, subjectId, classGroupId, rooms, !rooms.isEmpty());
+    }
+}
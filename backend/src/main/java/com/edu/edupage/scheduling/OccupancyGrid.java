@@ -0,0 +1,149 @@
+package com.edu.edupage.scheduling;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Week occupancy of every teacher, class and room as one bitmask per day, bit {@code i} meaning
+ * period {@code i} of the {@link SlotLayout} is taken. Conflict checks are plain bit tests. Teacher
+ * availability is kept apart from occupancy so that blocked periods never count as idle gaps.
+ */
+public class OccupancyGrid {
+
+    private final SlotLayout layout;
+    private final Map<Long, long[]> teachers = new HashMap<>();
+    private final Map<Long, long[]> classGroups = new HashMap<>();
+    private final Map<String, long[]> rooms = new HashMap<>();
+    private final Map<Long, long[]> blockedTeachers = new HashMap<>();
+    private final Map<Long, Integer> dailyLimits = new HashMap<>();
+
+    public OccupancyGrid(SlotLayout layout) {
+        this.layout = layout;
+    }
+
+    public static OccupancyGrid of(SlotLayout layout, Collection<BookedLesson> lessons) {
+        OccupancyGrid grid = new OccupancyGrid(layout);
+        lessons.forEach(grid::book);
+        return grid;
+    }
+
+    public OccupancyGrid copy() {
+        OccupancyGrid copy = new OccupancyGrid(layout);
+        teachers.forEach((id, row) -> copy.teachers.put(id, row.clone()));
+        classGroups.forEach((id, row) -> copy.classGroups.put(id, row.clone()));
+        rooms.forEach((name, row) -> copy.rooms.put(name, row.clone()));
+        blockedTeachers.forEach((id, row) -> copy.blockedTeachers.put(id, row.clone()));
+        copy.dailyLimits.putAll(dailyLimits);
+        return copy;
+    }
+
+    public SlotLayout getLayout() {
+        return layout;
+    }
+
+    /** Marks every period overlapped by an existing lesson as busy for its teacher, class and room. */
+    public void book(BookedLesson lesson) {
+        int day = layout.dayIndex(lesson.dayOfWeek());
+        if (day < 0) {
+            return;
+        }
+        long mask = layout.overlapMask(lesson.startTime(), lesson.endTime());
+        if (mask == 0L) {
+            return;
+        }
+        row(teachers, lesson.teacherId())[day] |= mask;
+        row(classGroups, lesson.classGroupId())[day] |= mask;
+        if (lesson.room() != null) {
+            row(rooms, lesson.room())[day] |= mask;
+        }
+    }
+
+    /**
+     * Blocks the teacher's unavailable periods and caps their lessons per day ({@code null} for no cap).
+     * Lessons already booked are kept even if they break these limits.
+     */
+    public void restrictTeacher(Long teacherId, long[] unavailableBlocks, Integer maxLessonsPerDay) {
+        if (unavailableBlocks != null) {
+            long[] blocked = row(blockedTeachers, teacherId);
+            for (int day = 0; day < layout.dayCount(); day++) {
+                blocked[day] |= TeacherAvailability.unavailablePeriods(unavailableBlocks, layout, day);
+            }
+        }
+        if (maxLessonsPerDay != null) {
+            dailyLimits.put(teacherId, maxLessonsPerDay);
+        }
+    }
+
+    public boolean isFree(Long teacherId, Long classGroupId, int day, int slot) {
+        long bit = 1L << slot;
+        long teacher = teacherMask(teacherId, day);
+        return ((teacher | teacherBlockedMask(teacherId, day)) & bit) == 0
+                && Long.bitCount(teacher) < teacherDailyLimit(teacherId)
+                && (classGroupMask(classGroupId, day) & bit) == 0;
+    }
+
+    public boolean isRoomFree(String room, int day, int slot) {
+        return (roomMask(room, day) & (1L << slot)) == 0;
+    }
+
+    /** First room of {@code rooms} that is free in the given period, or {@code null} if all are taken. */
+    public String freeRoom(List<String> rooms, int day, int slot) {
+        for (String room : rooms) {
+            if (isRoomFree(room, day, slot)) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    public void place(Long teacherId, Long classGroupId, String room, int day, int slot) {
+        long bit = 1L << slot;
+        row(teachers, teacherId)[day] |= bit;
+        row(classGroups, classGroupId)[day] |= bit;
+        if (room != null) {
+            row(rooms, room)[day] |= bit;
+        }
+    }
+
+    public long teacherMask(Long teacherId, int day) {
+        return mask(teachers, teacherId, day);
+    }
+
+    /** Periods the teacher is unavailable in, whether or not they are busy. */
+    public long teacherBlockedMask(Long teacherId, int day) {
+        return mask(blockedTeachers, teacherId, day);
+    }
+
+    /** Most periods the teacher may teach in a day; {@link Integer#MAX_VALUE} when unlimited. */
+    public int teacherDailyLimit(Long teacherId) {
+        return dailyLimits.getOrDefault(teacherId, Integer.MAX_VALUE);
+    }
+
+    public long classGroupMask(Long classGroupId, int day) {
+        return mask(classGroups, classGroupId, day);
+    }
+
+    public long roomMask(String room, int day) {
+        return mask(rooms, room, day);
+    }
+
+    /** Free periods between the first and the last busy period of a day mask. */
+    public static int idleGaps(long dayMask) {
+        if (dayMask == 0L) {
+            return 0;
+        }
+        int span = Long.SIZE - Long.numberOfLeadingZeros(dayMask) - Long.numberOfTrailingZeros(dayMask);
+        return span - Long.bitCount(dayMask);
+    }
+
+    private <K> long[] row(Map<K, long[]> masks, K key) {
+        return masks.computeIfAbsent(key, k -> new long[layout.dayCount()]);
+    }
+
+    private static <K> long mask(Map<K, long[]> masks, K key, int day) {
+        long[] row = masks.get(key);
+        return row == null ? 0L : row[day];
+    }
+}
@@ -0,0 +1,18 @@
+package com.edu.edupage.scheduling;
+
+import java.util.List;
+
+/**
+ * Published by the schedule service whenever lessons of the active timetable are created or deleted. Listeners that keep
+ * in-memory views of the timetable consume it after the transaction commits.
+ */
+public record ScheduleChangedEvent(List<BookedLesson> added, List<BookedLesson> removed) {
+
+    public static ScheduleChangedEvent added(List<BookedLesson> lessons) {
+        return new ScheduleChangedEvent(lessons, List.of());
+    }
+
+    public static ScheduleChangedEvent removed(BookedLesson lesson) {
+        return new ScheduleChangedEvent(List.of(), List.of(lesson));
+    }
+}
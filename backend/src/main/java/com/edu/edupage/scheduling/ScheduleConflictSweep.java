@@ -0,0 +1,72 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Reports every pair of overlapping lessons that share a teacher, class or room, in a single pass over
+ * lessons ordered by version, day and start time. For each resource only the lessons still running at the
+ * current start time are kept, in a heap ordered by end time, so a pass costs O(n log n) plus the number
+ * of conflicts. Lessons of different versions never conflict.
+ */
+public class ScheduleConflictSweep {
+
+    public record Conflict(ScheduleIntervalIndex.Resource resource, Object resourceId, VersionedLesson first,
+            VersionedLesson second) {
+    }
+
+    private record Key(ScheduleIntervalIndex.Resource resource, Object id) {
+    }
+
+    private static final Comparator<VersionedLesson> BY_END = Comparator.comparing(VersionedLesson::endTime);
+
+    private final Consumer<Conflict> conflicts;
+    private final Map<Key, PriorityQueue<VersionedLesson>> running = new HashMap<>();
+    private Long versionId;
+    private DayOfWeek day;
+    private VersionedLesson previous;
+    private long lessonCount;
+
+    public ScheduleConflictSweep(Consumer<Conflict> conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public void accept(VersionedLesson lesson) {
+        if (previous == null || !Objects.equals(lesson.versionId(), versionId) || lesson.dayOfWeek() != day) {
+            running.clear();
+            versionId = lesson.versionId();
+            day = lesson.dayOfWeek();
+        } else if (lesson.startTime().isBefore(previous.startTime())) {
+            throw new IllegalStateException("Lessons must be ordered by version, day and start time");
+        }
+        previous = lesson;
+        lessonCount++;
+
+        sweep(ScheduleIntervalIndex.Resource.TEACHER, lesson.teacherId(), lesson);
+        sweep(ScheduleIntervalIndex.Resource.CLASS_GROUP, lesson.classGroupId(), lesson);
+        if (lesson.room() != null) {
+            sweep(ScheduleIntervalIndex.Resource.ROOM, lesson.room(), lesson);
+        }
+    }
+
+    public long lessonCount() {
+        return lessonCount;
+    }
+
+    private void sweep(ScheduleIntervalIndex.Resource resource, Object resourceId, VersionedLesson lesson) {
+        PriorityQueue<VersionedLesson> active = running.computeIfAbsent(new Key(resource, resourceId),
+                key -> new PriorityQueue<>(BY_END));
+        while (!active.isEmpty() && !active.peek().endTime().isAfter(lesson.startTime())) {
+            active.poll();
+        }
+        for (VersionedLesson other : active) {
+            conflicts.accept(new Conflict(resource, resourceId, other, lesson));
+        }
+        active.add(lesson);
+    }
+}
@@ -0,0 +1,144 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Lessons of every teacher, class and room per day of week, kept as sorted interval arrays so that an
+ * overlap check is O(log n) in memory. Reads are lock-free; each update swaps in a new immutable array,
+ * and {@link #replaceAll} builds a complete new index before publishing it, so readers never see it half
+ * rebuilt. Writers must be serialized by the caller.
+ */
+public class ScheduleIntervalIndex {
+
+    public enum Resource {
+        TEACHER,
+        CLASS_GROUP,
+        ROOM
+    }
+
+    private record Key(Resource resource, Object id, DayOfWeek day) {
+    }
+
+    private record State(Map<Key, DayIntervals> intervals, Map<Long, BookedLesson> lessons) {
+
+        State() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private volatile State state = new State();
+
+    public void replaceAll(Collection<BookedLesson> all) {
+        State rebuilt = new State();
+        all.forEach(lesson -> add(rebuilt, lesson));
+        state = rebuilt;
+    }
+
+    /** Adds or replaces the lesson with the same id. */
+    public void add(BookedLesson lesson) {
+        add(state, lesson);
+    }
+
+    public void remove(Long lessonId) {
+        remove(state, lessonId);
+    }
+
+    public int size() {
+        return state.lessons().size();
+    }
+
+    /** Copy of every indexed lesson, e.g. to plan against without reading the schedules table. */
+    public List<BookedLesson> snapshot() {
+        return List.copyOf(state.lessons().values());
+    }
+
+    /**
+     * Id of a lesson of the given resource overlapping {@code [start, end)} on that day, ignoring
+     * {@code excludeId}; {@code null} if the resource is free.
+     */
+    public Long findOverlap(Resource resource, Object resourceId, DayOfWeek day, LocalTime start, LocalTime end,
+            Long excludeId) {
+        if (resourceId == null) {
+            return null;
+        }
+        DayIntervals timeline = state.intervals().get(new Key(resource, resourceId, day));
+        if (timeline == null) {
+            return null;
+        }
+        long found = timeline.findOverlap(start.toSecondOfDay(), end.toSecondOfDay(),
+                excludeId != null ? excludeId : Long.MIN_VALUE);
+        return found < 0 ? null : found;
+    }
+
+    /** Lesson of the resource in progress at {@code time} on that day, or {@code null}. */
+    public BookedLesson findRunningAt(Resource resource, Object resourceId, DayOfWeek day, LocalTime time) {
+        State current = state;
+        DayIntervals timeline = resourceId == null ? null
+                : current.intervals().get(new Key(resource, resourceId, day));
+        return timeline == null ? null : current.lessons().get(timeline.findRunningAt(time.toSecondOfDay()));
+    }
+
+    /**
+     * First lesson of the resource starting after {@code time} on that day or, failing that, on one of the
+     * following days of the week (wrapping around to {@code day} itself); {@code null} if it has none.
+     */
+    public BookedLesson findNext(Resource resource, Object resourceId, DayOfWeek day, LocalTime time) {
+        if (resourceId == null) {
+            return null;
+        }
+        State current = state;
+        int after = time.toSecondOfDay();
+        for (int i = 0; i <= DayOfWeek.values().length; i++) {
+            DayIntervals timeline = current.intervals().get(new Key(resource, resourceId, day.plus(i)));
+            if (timeline != null) {
+                BookedLesson next = current.lessons().get(timeline.findStartingAfter(after));
+                if (next != null) {
+                    return next;
+                }
+            }
+            after = -1;
+        }
+        return null;
+    }
+
+    /** Number of lessons the resource has on that day. */
+    public int count(Resource resource, Object resourceId, DayOfWeek day) {
+        DayIntervals timeline = resourceId == null ? null
+                : state.intervals().get(new Key(resource, resourceId, day));
+        return timeline == null ? 0 : timeline.size();
+    }
+
+    private static void add(State state, BookedLesson lesson) {
+        remove(state, lesson.id());
+        state.lessons().put(lesson.id(), lesson);
+        int start = lesson.startTime().toSecondOfDay();
+        int end = lesson.endTime().toSecondOfDay();
+        forEachKey(lesson, key -> state.intervals().compute(key,
+                (k, current) -> (current == null ? DayIntervals.EMPTY : current).with(lesson.id(), start, end)));
+    }
+
+    private static void remove(State state, Long lessonId) {
+        BookedLesson lesson = state.lessons().remove(lessonId);
+        if (lesson == null) {
+            return;
+        }
+        forEachKey(lesson, key -> state.intervals().computeIfPresent(key, (k, current) -> {
+            DayIntervals updated = current.without(lessonId);
+            return updated.size() == 0 ? null : updated;
+        }));
+    }
+
+    private static void forEachKey(BookedLesson lesson, Consumer<Key> action) {
+        action.accept(new Key(Resource.TEACHER, lesson.teacherId(), lesson.dayOfWeek()));
+        action.accept(new Key(Resource.CLASS_GROUP, lesson.classGroupId(), lesson.dayOfWeek()));
+        if (lesson.room() != null) {
+            action.accept(new Key(Resource.ROOM, lesson.room(), lesson.dayOfWeek()));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Fixed grid of lesson periods used by the generator: a set of school days, each split into
+ * equally sized periods separated by breaks. Period {@code i} of a day runs from
+ * {@code dayStart + i * (lesson + break)} for {@code lesson} minutes.
+ */
+public final class SlotLayout {
+
+    public static final int MAX_SLOTS_PER_DAY = Long.SIZE;
+
+    private static final DayOfWeek[] SCHOOL_DAYS = { DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY };
+
+    private final DayOfWeek[] days;
+    private final int dayStartMinute;
+    private final int lessonMinutes;
+    private final int breakMinutes;
+    private final int slotsPerDay;
+
+    public SlotLayout(LocalTime dayStart, LocalTime dayEnd, int lessonMinutes, int breakMinutes) {
+        if (lessonMinutes <= 0) {
+            throw new IllegalArgumentException("Lesson duration must be positive");
+        }
+        if (breakMinutes < 0) {
+            throw new IllegalArgumentException("Break duration must not be negative");
+        }
+        this.days = SCHOOL_DAYS;
+        this.dayStartMinute = minuteOfDay(dayStart);
+        this.lessonMinutes = lessonMinutes;
+        this.breakMinutes = breakMinutes;
+
+        int available = minuteOfDay(dayEnd) - dayStartMinute;
+        int slots = available < lessonMinutes ? 0 : (available - lessonMinutes) / (lessonMinutes + breakMinutes) + 1;
+        if (slots > MAX_SLOTS_PER_DAY) {
+            throw new IllegalArgumentException("A school day cannot have more than " + MAX_SLOTS_PER_DAY + " lessons");
+        }
+        this.slotsPerDay = slots;
+    }
+
+    public int dayCount() {
+        return days.length;
+    }
+
+    public int slotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public int cellCount() {
+        return days.length * slotsPerDay;
+    }
+
+    public DayOfWeek day(int dayIndex) {
+        return days[dayIndex];
+    }
+
+    /** Index of the given day in this layout, or -1 if lessons are never generated on it. */
+    public int dayIndex(DayOfWeek day) {
+        for (int i = 0; i < days.length; i++) {
+            if (days[i] == day) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public LocalTime startOf(int slot) {
+        return LocalTime.of(0, 0).plusMinutes(startMinute(slot));
+    }
+
+    public LocalTime endOf(int slot) {
+        return LocalTime.of(0, 0).plusMinutes(startMinute(slot) + lessonMinutes);
+    }
+
+    /** Bitmask of the periods that overlap the half-open interval {@code [start, end)}. */
+    public long overlapMask(LocalTime start, LocalTime end) {
+        int from = minuteOfDay(start);
+        int to = minuteOfDay(end);
+        long mask = 0L;
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            int slotStart = startMinute(slot);
+            if (slotStart >= to) {
+                break;
+            }
+            if (from < slotStart + lessonMinutes) {
+                mask |= 1L << slot;
+            }
+        }
+        return mask;
+    }
+
+    public int cell(int dayIndex, int slot) {
+        return dayIndex * slotsPerDay + slot;
+    }
+
+    public int dayOfCell(int cell) {
+        return cell / slotsPerDay;
+    }
+
+    public int slotOfCell(int cell) {
+        return cell % slotsPerDay;
+    }
+
+    private int startMinute(int slot) {
+        return dayStartMinute + slot * (lessonMinutes + breakMinutes);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,11 @@
+package com.edu.edupage.scheduling;
+
+/** Receives the number of lessons placed so far while a solver runs. May be called from several threads. */
+@FunctionalInterface
+public interface SolverProgress {
+
+    SolverProgress NONE = (placed, total) -> {
+    };
+
+    void placed(int placed, int total);
+}
@@ -0,0 +1,106 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoding of a teacher's unavailable times: one bitmask per day of week (Monday first), bit {@code i}
+ * meaning the quarter hour starting at {@code 06:00 + 15 * i} is unavailable. 64 bits cover 06:00-22:00;
+ * times outside that window are always available. Partial quarter hours count as unavailable.
+ */
+public final class TeacherAvailability {
+
+    public static final LocalTime FIRST_BLOCK = LocalTime.of(6, 0);
+    public static final int BLOCK_MINUTES = 15;
+
+    private static final int FIRST_MINUTE = FIRST_BLOCK.getHour() * 60;
+    private static final int DAYS = DayOfWeek.values().length;
+
+    public record Period(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+    }
+
+    private TeacherAvailability() {
+    }
+
+    /** Day masks for the given unavailable periods, or {@code null} if there are none. */
+    public static long[] encode(List<Period> periods) {
+        if (periods == null || periods.isEmpty()) {
+            return null;
+        }
+        long[] days = new long[DAYS];
+        for (Period period : periods) {
+            if (!period.startTime().isBefore(period.endTime())) {
+                throw new IllegalArgumentException("Unavailable period must end after it starts");
+            }
+            days[period.dayOfWeek().ordinal()] |= blockMask(period.startTime(), period.endTime());
+        }
+        return days;
+    }
+
+    /** Unavailable periods as runs of consecutive blocks, in day and time order. */
+    public static List<Period> decode(long[] days) {
+        List<Period> periods = new ArrayList<>();
+        if (days == null) {
+            return periods;
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            long mask = dayMask(days, day);
+            while (mask != 0L) {
+                int first = Long.numberOfTrailingZeros(mask);
+                int end = first;
+                while (end < Long.SIZE && (mask & (1L << end)) != 0) {
+                    end++;
+                }
+                periods.add(new Period(day, blockStart(first), blockStart(end)));
+                mask &= end == Long.SIZE ? 0L : -1L << end;
+            }
+        }
+        return periods;
+    }
+
+    public static long dayMask(long[] days, DayOfWeek day) {
+        return days == null || days.length <= day.ordinal() ? 0L : days[day.ordinal()];
+    }
+
+    public static boolean isAvailable(long[] days, DayOfWeek day, LocalTime start, LocalTime end) {
+        return (dayMask(days, day) & blockMask(start, end)) == 0L;
+    }
+
+    /** Periods of {@code layout} on day index {@code dayIndex} that touch an unavailable block. */
+    public static long unavailablePeriods(long[] days, SlotLayout layout, int dayIndex) {
+        long mask = dayMask(days, layout.day(dayIndex));
+        if (mask == 0L) {
+            return 0L;
+        }
+        long periods = 0L;
+        for (int slot = 0; slot < layout.slotsPerDay(); slot++) {
+            if ((mask & blockMask(layout.startOf(slot), layout.endOf(slot))) != 0L) {
+                periods |= 1L << slot;
+            }
+        }
+        return periods;
+    }
+
+    /** Blocks overlapping the half-open interval {@code [start, end)}. */
+    static long blockMask(LocalTime start, LocalTime end) {
+        int from = Math.max(0, minuteOfDay(start) - FIRST_MINUTE);
+        int to = Math.min(Long.SIZE * BLOCK_MINUTES, minuteOfDay(end) - FIRST_MINUTE);
+        if (to <= from) {
+            return 0L;
+        }
+        int firstBlock = from / BLOCK_MINUTES;
+        int lastBlock = (to - 1) / BLOCK_MINUTES;
+        long upTo = lastBlock == Long.SIZE - 1 ? -1L : (1L << (lastBlock + 1)) - 1;
+        return upTo & (-1L << firstBlock);
+    }
+
+    private static LocalTime blockStart(int block) {
+        return FIRST_BLOCK.plusMinutes((long) block * BLOCK_MINUTES);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute() + (time.getSecond() > 0 || time.getNano() > 0 ? 1 : 0);
+    }
+}
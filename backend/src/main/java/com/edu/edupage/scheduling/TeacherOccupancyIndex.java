@@ -0,0 +1,150 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weekly occupancy of every teacher as a bitmap with one bit per minute of each day of week, plus the
+ * number of lessons per day. Whether a teacher is free for a lesson is a handful of word tests. Reads are
+ * lock-free; each update swaps in a new bitmap for the affected teacher, and {@link #replaceAll} builds
+ * a complete new index before publishing it. Writers must be serialized by the caller.
+ */
+public class TeacherOccupancyIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    private static final int DAYS = DayOfWeek.values().length;
+
+    private record TeacherWeek(long[] minutes, int[] lessonsPerDay, int lessonsPerWeek) {
+    }
+
+    // Only weeks is read concurrently; the lesson maps are touched by the (serialized) writers alone
+    private record State(Map<Long, TeacherWeek> weeks, Map<Long, Map<Long, BookedLesson>> lessonsByTeacher,
+            Map<Long, Long> teacherOfLesson) {
+
+        State() {
+            this(new ConcurrentHashMap<>(), new HashMap<>(), new HashMap<>());
+        }
+    }
+
+    private volatile State state = new State();
+
+    public void replaceAll(Collection<BookedLesson> all) {
+        State rebuilt = new State();
+        all.forEach(lesson -> {
+            rebuilt.lessonsByTeacher().computeIfAbsent(lesson.teacherId(), id -> new HashMap<>())
+                    .put(lesson.id(), lesson);
+            rebuilt.teacherOfLesson().put(lesson.id(), lesson.teacherId());
+        });
+        rebuilt.lessonsByTeacher().keySet().forEach(teacherId -> rebuild(rebuilt, teacherId));
+        state = rebuilt;
+    }
+
+    /** Adds or replaces the lesson with the same id. */
+    public void add(BookedLesson lesson) {
+        State current = state;
+        remove(lesson.id());
+        current.lessonsByTeacher().computeIfAbsent(lesson.teacherId(), id -> new HashMap<>())
+                .put(lesson.id(), lesson);
+        current.teacherOfLesson().put(lesson.id(), lesson.teacherId());
+        rebuild(current, lesson.teacherId());
+    }
+
+    public void remove(Long lessonId) {
+        State current = state;
+        Long teacherId = current.teacherOfLesson().remove(lessonId);
+        if (teacherId == null) {
+            return;
+        }
+        Map<Long, BookedLesson> lessons = current.lessonsByTeacher().get(teacherId);
+        lessons.remove(lessonId);
+        if (lessons.isEmpty()) {
+            current.lessonsByTeacher().remove(teacherId);
+        }
+        rebuild(current, teacherId);
+    }
+
+    /** Whether the teacher has nothing in {@code [start, end)} on that day. */
+    public boolean isFree(Long teacherId, DayOfWeek day, LocalTime start, LocalTime end) {
+        TeacherWeek week = state.weeks().get(teacherId);
+        return week == null || !anySet(week.minutes(), day, minuteOf(start), minuteOfEnd(end));
+    }
+
+    /**
+     * Whether one of the teacher's lessons ends at most {@code margin} minutes before {@code start} or
+     * begins at most {@code margin} minutes after {@code end}.
+     */
+    public boolean isBusyAround(Long teacherId, DayOfWeek day, LocalTime start, LocalTime end, int margin) {
+        TeacherWeek week = state.weeks().get(teacherId);
+        if (week == null) {
+            return false;
+        }
+        int from = minuteOf(start);
+        int to = minuteOfEnd(end);
+        return anySet(week.minutes(), day, Math.max(0, from - margin - 1), from)
+                || anySet(week.minutes(), day, to, Math.min(MINUTES_PER_DAY, to + margin + 1));
+    }
+
+    public int lessonsOn(Long teacherId, DayOfWeek day) {
+        TeacherWeek week = state.weeks().get(teacherId);
+        return week == null ? 0 : week.lessonsPerDay()[day.ordinal()];
+    }
+
+    public int lessonsPerWeek(Long teacherId) {
+        TeacherWeek week = state.weeks().get(teacherId);
+        return week == null ? 0 : week.lessonsPerWeek();
+    }
+
+    private static void rebuild(State state, Long teacherId) {
+        Map<Long, BookedLesson> lessons = state.lessonsByTeacher().get(teacherId);
+        if (lessons == null) {
+            state.weeks().remove(teacherId);
+            return;
+        }
+        long[] minutes = new long[DAYS * WORDS_PER_DAY];
+        int[] lessonsPerDay = new int[DAYS];
+        for (BookedLesson lesson : lessons.values()) {
+            int day = lesson.dayOfWeek().ordinal();
+            lessonsPerDay[day]++;
+            int offset = day * WORDS_PER_DAY * Long.SIZE;
+            for (int minute = minuteOf(lesson.startTime()); minute < minuteOfEnd(lesson.endTime()); minute++) {
+                int bit = offset + minute;
+                minutes[bit >>> 6] |= 1L << bit;
+            }
+        }
+        state.weeks().put(teacherId, new TeacherWeek(minutes, lessonsPerDay, lessons.size()));
+    }
+
+    private static boolean anySet(long[] minutes, DayOfWeek day, int from, int to) {
+        int offset = day.ordinal() * WORDS_PER_DAY * Long.SIZE;
+        int bit = offset + from;
+        int end = offset + to;
+        while (bit < end) {
+            int word = bit >>> 6;
+            int wordEnd = Math.min(end, (word + 1) << 6);
+            long mask = -1L << bit;
+            if (wordEnd < (word + 1) << 6) {
+                mask &= (1L << wordEnd) - 1;
+            }
+            if ((minutes[word] & mask) != 0) {
+                return true;
+            }
+            bit = wordEnd;
+        }
+        return false;
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // Rounded up, so a lesson ending at 09:44:30 still occupies minute 09:44
+    private static int minuteOfEnd(LocalTime time) {
+        int minute = minuteOf(time);
+        return time.getSecond() > 0 || time.getNano() > 0 ? minute + 1 : minute;
+    }
+}
@@ -0,0 +1,83 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of the school calendar: the terms and the dates on which the weekly timetable is
+ * replaced. {@code version} changes with every edit, so anything derived from a snapshot can be checked
+ * for staleness with one comparison.
+ */
+public final class TermCalendar {
+
+    public record TermRange(Long id, String name, LocalDate startDate, LocalDate endDate) {
+
+        public boolean contains(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+    }
+
+    private final long version;
+    private final List<TermRange> terms;
+    // Date -> day of week whose lessons take place; null value for holidays
+    private final Map<LocalDate, DayOfWeek> exceptions;
+
+    /** {@code terms} must be sorted by start date and must not overlap. */
+    public TermCalendar(long version, List<TermRange> terms, Map<LocalDate, DayOfWeek> exceptions) {
+        this.version = version;
+        this.terms = List.copyOf(terms);
+        this.exceptions = exceptions;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<TermRange> terms() {
+        return terms;
+    }
+
+    /** Exception dates mapped to the day of week whose lessons take place then, {@code null} for holidays. */
+    public Map<LocalDate, DayOfWeek> exceptions() {
+        return exceptions;
+    }
+
+    public Optional<TermRange> termOf(LocalDate date) {
+        int low = 0;
+        int high = terms.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            TermRange term = terms.get(mid);
+            if (term.endDate().isBefore(date)) {
+                low = mid + 1;
+            } else if (term.startDate().isAfter(date)) {
+                high = mid - 1;
+            } else {
+                return Optional.of(term);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Day of week whose lessons take place on {@code date}, or {@code null} outside terms and on holidays.
+     * Without any terms every date is a school day with its own day's lessons.
+     */
+    public DayOfWeek timetableDay(LocalDate date) {
+        if (terms.isEmpty()) {
+            return date.getDayOfWeek();
+        }
+        if (termOf(date).isEmpty()) {
+            return null;
+        }
+        return exceptions.containsKey(date) ? exceptions.get(date) : date.getDayOfWeek();
+    }
+
+    /** Whether the date is within a term but has no lessons, or lessons of another day. */
+    public boolean isException(LocalDate date) {
+        return exceptions.containsKey(date) && termOf(date).isPresent();
+    }
+}
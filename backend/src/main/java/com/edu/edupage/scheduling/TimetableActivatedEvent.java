@@ -0,0 +1,8 @@
+package com.edu.edupage.scheduling;
+
+/**
+ * Published when a timetable version becomes the active one. Consumed after commit by everything that
+ * caches the active timetable, which has to be rebuilt as a whole.
+ */
+public record TimetableActivatedEvent(Long versionId, Long previousVersionId) {
+}
@@ -0,0 +1,10 @@
+package com.edu.edupage.scheduling;
+
+import java.util.List;
+
+/**
+ * Input of a timetable solve: the period layout, what is already booked and the lessons to place.
+ * The occupancy grid is treated as read-only by solvers.
+ */
+public record TimetableProblem(SlotLayout layout, OccupancyGrid occupancy, List<LessonDemand> lessons) {
+}
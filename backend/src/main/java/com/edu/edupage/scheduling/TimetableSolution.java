@@ -0,0 +1,59 @@
+package com.edu.edupage.scheduling;
+
+/**
+ * Result of a solve: for every lesson of the problem, the grid cell ({@code day * slotsPerDay + slot})
+ * it was placed in, or {@link #UNPLACED}, and the room it was given ({@code null} for lessons without one).
+ */
+public final class TimetableSolution {
+
+    public static final int UNPLACED = -1;
+
+    private final int[] cells;
+    private final String[] rooms;
+    private final long cost;
+
+    public TimetableSolution(int[] cells, String[] rooms, long cost) {
+        this.cells = cells;
+        this.rooms = rooms;
+        this.cost = cost;
+    }
+
+    public int cellOf(int lesson) {
+        return cells[lesson];
+    }
+
+    public String roomOf(int lesson) {
+        return rooms[lesson];
+    }
+
+    public boolean isPlaced(int lesson) {
+        return cells[lesson] != UNPLACED;
+    }
+
+    public int lessonCount() {
+        return cells.length;
+    }
+
+    public int unplacedCount() {
+        int unplaced = 0;
+        for (int cell : cells) {
+            if (cell == UNPLACED) {
+                unplaced++;
+            }
+        }
+        return unplaced;
+    }
+
+    /** Penalty assigned by the solver that produced this solution; lower is better. */
+    public long getCost() {
+        return cost;
+    }
+
+    int[] cells() {
+        return cells;
+    }
+
+    String[] rooms() {
+        return rooms;
+    }
+}
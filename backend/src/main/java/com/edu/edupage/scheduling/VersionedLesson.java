@@ -0,0 +1,9 @@
+package com.edu.edupage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/** {@link BookedLesson} together with the timetable version it belongs to, for checks across all versions. */
+public record VersionedLesson(Long versionId, Long id, Long teacherId, Long classGroupId, String room,
+        DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+}
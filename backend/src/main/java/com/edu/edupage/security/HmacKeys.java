@@ -0,0 +1,28 @@
+package com.edu.edupage.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * HMAC-SHA256 keys for signed links and codes. Each key is derived from a configured secret and the purpose
+ * it signs, so a signature made for one purpose is never valid for another, nor as a login token.
+ */
+public final class HmacKeys {
+
+    public static final String ALGORITHM = "HmacSHA256";
+
+    private HmacKeys() {
+    }
+
+    public static SecretKeySpec derive(String secret, String purpose) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return new SecretKeySpec(mac.doFinal(purpose.getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.AttendancePartitionDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps attendance range-partitioned by month so that date-bounded queries only touch the months they ask
+ * for. Partitions are created some months ahead; a date without one lands in the default partition, from
+ * which the nightly maintenance moves it into a new month. Academic years older than {@code keep-years} are
+ * detached and packed into one index-free partition of {@value #ARCHIVE_TABLE} per year, which is no longer
+ * writable through the application but still counted by the attendance counters. Hibernate only knows
+ * attendance as a plain table, so all of this is PostgreSQL DDL run through JDBC.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendancePartitionService {
+
+    public static final String ARCHIVE_TABLE = "attendance_archive";
+
+    private static final String TABLE = "attendance";
+    private static final String DEFAULT_PARTITION = "attendance_default";
+    private static final Pattern BOUNDS = Pattern.compile("FROM \\('([0-9-]+)'\\) TO \\('([0-9-]+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.attendance.partitions.months-ahead}")
+    private int monthsAhead;
+
+    @Value("${app.attendance.archive.academic-year-start-month}")
+    private int academicYearStartMonth;
+
+    @Value("${app.attendance.archive.keep-years}")
+    private int keepYears;
+
+    private volatile LocalDate archivedBefore;
+
+    private record Partition(String table, LocalDate from, LocalDate to, Long estimatedRows) {
+    }
+
+    /**
+     * Turns the table Hibernate created into a partitioned one, keeping its rows, constraints and indexes,
+     * and makes sure the coming months have partitions. Called once at startup.
+     */
+    public void partitionTable() {
+        String kind = jdbcTemplate.queryForObject("SELECT relkind FROM pg_class WHERE oid = CAST(? AS regclass)",
+                String.class, TABLE);
+        if (!"p".equals(kind)) {
+            transactionTemplate.executeWithoutResult(status -> convertTable());
+        }
+        maintainPartitions();
+        archivedBefore = latestArchivedDate();
+    }
+
+    /** First date whose attendance is still live, or {@code null} if nothing has been archived. */
+    public LocalDate archivedBefore() {
+        return archivedBefore;
+    }
+
+    public boolean isArchived(LocalDate date) {
+        LocalDate before = archivedBefore;
+        return before != null && date.isBefore(before);
+    }
+
+    /** Creates the partitions of the coming months and moves rows out of the default partition. */
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now();
+        ensureMonths(current, current.plusMonths(monthsAhead));
+        List<LocalDate> stray = jdbcTemplate.queryForList("SELECT DISTINCT CAST(date_trunc('month', date) AS date) "
+                + "FROM " + DEFAULT_PARTITION + " ORDER BY 1", LocalDate.class);
+        stray.forEach(month -> createMonth(YearMonth.from(month)));
+    }
+
+    /** Makes sure every month from {@code first} to {@code last} has a partition, e.g. before a bulk load. */
+    public void ensureMonths(YearMonth first, YearMonth last) {
+        Set<YearMonth> existing = partitionsOf(TABLE).stream()
+                .filter(partition -> partition.from() != null)
+                .map(partition -> YearMonth.from(partition.from()))
+                .collect(Collectors.toSet());
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                createMonth(month);
+            }
+        }
+    }
+
+    /**
+     * Moves every academic year that ended before the last {@code keep-years} ones into the archive, one
+     * transaction per year. Returns the number of archived rows.
+     */
+    public long archiveAcademicYears() {
+        LocalDate today = LocalDate.now();
+        int currentYear = today.getMonthValue() >= academicYearStartMonth ? today.getYear() : today.getYear() - 1;
+        LocalDate cutoff = LocalDate.of(currentYear - Math.max(keepYears - 1, 0), academicYearStartMonth, 1);
+
+        Map<Integer, List<Partition>> byYear = partitionsOf(TABLE).stream()
+                .filter(partition -> partition.to() != null && !partition.to().isAfter(cutoff))
+                .collect(Collectors.groupingBy(partition -> academicYearOf(partition.from()), TreeMap::new,
+                        Collectors.toList()));
+        long archived = 0;
+        for (Map.Entry<Integer, List<Partition>> year : byYear.entrySet()) {
+            Long rows = transactionTemplate.execute(status -> archiveYear(year.getKey(), year.getValue()));
+            archived += rows != null ? rows : 0;
+        }
+        archivedBefore = latestArchivedDate();
+        return archived;
+    }
+
+    @Scheduled(cron = "${app.attendance.partitions.cron}")
+    public void runNightlyMaintenance() {
+        maintainPartitions();
+        long archived = archiveAcademicYears();
+        if (archived > 0) {
+            log.info("Archived {} attendance records from before {}", archived, archivedBefore);
+        }
+    }
+
+    /** Live partitions in date order followed by the default partition, then the archived years. */
+    public List<AttendancePartitionDTO> getPartitions() {
+        List<AttendancePartitionDTO> partitions = new ArrayList<>();
+        partitionsOf(TABLE).forEach(partition -> partitions.add(mapToDTO(partition, false)));
+        partitionsOf(ARCHIVE_TABLE).forEach(partition -> partitions.add(mapToDTO(partition, true)));
+        return partitions;
+    }
+
+    private void convertTable() {
+        // Attendance is a plain table only when Hibernate has just created it or it predates partitioning;
+        // either way an archive left behind belongs to a schema that no longer exists
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + ARCHIVE_TABLE);
+
+        // Definitions are taken before the rename, so they name the new table
+        List<String> constraints = jdbcTemplate.queryForList("SELECT 'ALTER TABLE " + TABLE + " ADD CONSTRAINT ' "
+                + "|| quote_ident(conname) || ' ' || pg_get_constraintdef(oid) FROM pg_constraint "
+                + "WHERE conrelid = CAST(? AS regclass) AND contype IN ('u', 'f')", String.class, TABLE);
+        List<String> indexes = jdbcTemplate.queryForList("SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                + "WHERE i.indrelid = CAST(? AS regclass) AND NOT EXISTS (SELECT 1 FROM pg_constraint c "
+                + "WHERE c.conrelid = i.indrelid AND c.conindid = i.indexrelid)", String.class, TABLE);
+
+        // Identity columns cannot be partitioned (before PostgreSQL 17), so the id comes from a plain sequence
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO attendance_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE attendance_unpartitioned INCLUDING DEFAULTS "
+                + "INCLUDING CONSTRAINTS) PARTITION BY RANGE (date)");
+        jdbcTemplate.execute("CREATE SEQUENCE attendance_id_seq OWNED BY " + TABLE + ".id");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN id SET DEFAULT nextval('attendance_id_seq')");
+        jdbcTemplate.execute("SELECT setval('attendance_id_seq', COALESCE(MAX(id), 0) + 1, false) "
+                + "FROM attendance_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+        List<LocalDate> range = jdbcTemplate.query("SELECT MIN(date), MAX(date) FROM attendance_unpartitioned",
+                (rs, rowNum) -> rs.getObject(1, LocalDate.class) != null
+                        ? List.of(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class))
+                        : List.<LocalDate>of()).get(0);
+        if (!range.isEmpty()) {
+            ensureMonths(YearMonth.from(range.get(0)), YearMonth.from(range.get(1)));
+        }
+        int rows = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM attendance_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE attendance_unpartitioned");
+
+        // Unique keys of a partitioned table have to contain the partition key
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT attendance_pkey PRIMARY KEY (id, date)");
+        constraints.forEach(jdbcTemplate::execute);
+        indexes.forEach(jdbcTemplate::execute);
+
+        jdbcTemplate.execute("CREATE TABLE " + ARCHIVE_TABLE + " (LIKE " + TABLE + ") PARTITION BY RANGE (date)");
+        log.info("Partitioned attendance by month ({} existing records)", rows);
+    }
+
+    /**
+     * Creates the partition of one month. Rows of that month in the default partition are moved into it
+     * before it is attached; the default partition is locked meanwhile so no new ones arrive.
+     */
+    private void createMonth(YearMonth month) {
+        String partition = String.format("%s_%04d_%02d", TABLE, month.getYear(), month.getMonthValue());
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + " INCLUDING DEFAULTS "
+                    + "INCLUDING CONSTRAINTS)");
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE date >= ? AND date < ? "
+                    + "RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        });
+    }
+
+    private long archiveYear(int year, List<Partition> months) {
+        LocalDate from = LocalDate.of(year, academicYearStartMonth, 1);
+        String archive = String.format("%s_%04d_%04d", ARCHIVE_TABLE, year, year + 1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archive + " PARTITION OF " + ARCHIVE_TABLE
+                + " FOR VALUES FROM ('" + from + "') TO ('" + from.plusYears(1) + "')");
+
+        long rows = 0;
+        for (Partition month : months) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + month.table());
+            // Written once in lookup order and never updated, so the pages stay full
+            rows += jdbcTemplate.update("INSERT INTO " + archive + " SELECT * FROM " + month.table()
+                    + " ORDER BY student_id, date");
+            jdbcTemplate.execute("DROP TABLE " + month.table());
+        }
+        jdbcTemplate.execute("ANALYZE " + archive);
+        log.info("Archived attendance of {}/{}: {} records from {} monthly partitions", year, year + 1, rows,
+                months.size());
+        return rows;
+    }
+
+    private int academicYearOf(LocalDate date) {
+        return date.getMonthValue() >= academicYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    private LocalDate latestArchivedDate() {
+        return partitionsOf(ARCHIVE_TABLE).stream()
+                .map(Partition::to)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
+    private List<Partition> partitionsOf(String parent) {
+        return jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), c.reltuples FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = CAST(? AS regclass) ORDER BY c.relname",
+                (rs, rowNum) -> {
+                    Matcher bounds = BOUNDS.matcher(rs.getString(2));
+                    boolean ranged = bounds.find();
+                    long tuples = (long) rs.getFloat(3);
+                    return new Partition(rs.getString(1), ranged ? LocalDate.parse(bounds.group(1)) : null,
+                            ranged ? LocalDate.parse(bounds.group(2)) : null, tuples >= 0 ? tuples : null);
+                }, parent);
+    }
+
+    private static AttendancePartitionDTO mapToDTO(Partition partition, boolean archived) {
+        return AttendancePartitionDTO.builder()
+                .table(partition.table())
+                .from(partition.from())
+                .to(partition.to())
+                .archived(archived)
+                .estimatedRows(partition.estimatedRows())
+                .build();
+    }
+}
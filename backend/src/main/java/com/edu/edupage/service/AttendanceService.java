@@ -1,18 +1,33 @@
 package com.edu.edupage.service;
 
 import com.edu.edupage.dto.AttendanceDTO;
+import com.edu.edupage.dto.ClassAttendanceGridDTO;
 import com.edu.edupage.dto.MarkAttendanceRequest;
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.SubjectAttendanceDTO;
 import com.edu.edupage.entity.*;
 import com.edu.edupage.exception.ResourceNotFoundException;
 import com.edu.edupage.repository.*;
+import com.edu.edupage.scheduling.TermCalendar;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +38,14 @@ public class AttendanceService {
     private final StudentRepository studentRepository;
     private final ScheduleRepository scheduleRepository;
     private final UserRepository userRepository;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final TermCalendarService termCalendarService;
+    private final TimetableCacheService timetableCacheService;
+    private final AttendancePartitionService attendancePartitionService;
+
+    /** A student's check-in to a lesson, buffered by {@link CheckInService}. */
+    public record CheckIn(Long studentId, Long userId, AttendanceStatus status, LocalDateTime at) {
+    }
 
     public List<AttendanceDTO> getStudentAttendance(Long studentId) {
         return attendanceRepository.findByStudentId(studentId)
@@ -40,52 +63,230 @@ public class AttendanceService {
 
     public Map<String, Long> getStudentAttendanceStats(Long studentId) {
         Map<String, Long> stats = new HashMap<>();
-        stats.put("present", attendanceRepository.countByStudentAndStatus(studentId, AttendanceStatus.PRESENT));
-        stats.put("absent", attendanceRepository.countByStudentAndStatus(studentId, AttendanceStatus.ABSENT));
-        stats.put("late", attendanceRepository.countByStudentAndStatus(studentId, AttendanceStatus.LATE));
-        stats.put("excused", attendanceRepository.countByStudentAndStatus(studentId, AttendanceStatus.EXCUSED));
+        for (AttendanceStatus status : AttendanceStatus.values()) {
+            stats.put(status.name().toLowerCase(), 0L);
+        }
+        for (Object[] row : attendanceCounterRepository.sumByStatus(studentId)) {
+            stats.put(((AttendanceStatus) row[0]).name().toLowerCase(), ((Number) row[1]).longValue());
+        }
         return stats;
     }
 
+    /** Attendance per subject from the counters; all terms when {@code termId} is null. */
+    public List<SubjectAttendanceDTO> getStudentSubjectAttendance(Long studentId, Long termId) {
+        Map<Long, SubjectAttendanceDTO> subjects = new LinkedHashMap<>();
+        for (Object[] row : attendanceCounterRepository.sumBySubjectAndStatus(studentId, termId)) {
+            SubjectAttendanceDTO subject = subjects.computeIfAbsent((Long) row[0], id -> SubjectAttendanceDTO.builder()
+                    .subjectId(id)
+                    .subjectName((String) row[1])
+                    .build());
+            long count = ((Number) row[3]).longValue();
+            switch ((AttendanceStatus) row[2]) {
+                case PRESENT -> subject.setPresent(count);
+                case ABSENT -> subject.setAbsent(count);
+                case LATE -> subject.setLate(count);
+                case EXCUSED -> subject.setExcused(count);
+            }
+        }
+        subjects.values().forEach(subject -> {
+            long total = subject.getPresent() + subject.getAbsent() + subject.getLate() + subject.getExcused();
+            subject.setTotal(total);
+            subject.setAttendanceRate(total == 0 ? 0.0 : (double) (subject.getPresent() + subject.getLate()) / total);
+        });
+        return List.copyOf(subjects.values());
+    }
+
+    /**
+     * Marks a whole lesson in a fixed number of statements: students and the lesson's existing attendance
+     * are read with one query each, and every new or changed record is written by a single upsert.
+     * Records identical to what is stored (same status, notes and marker) are not written again. Other
+     * markings and check-ins of the lesson wait until this one commits, so the counters move from the
+     * status that was actually overwritten.
+     */
     @Transactional
     public List<AttendanceDTO> markAttendance(MarkAttendanceRequest request, Long markedByUserId) {
-        Schedule schedule = scheduleRepository.findById(request.getScheduleId())
+        if (attendancePartitionService.isArchived(request.getDate())) {
+            throw new IllegalArgumentException("Attendance before " + attendancePartitionService.archivedBefore()
+                    + " is archived and can no longer be changed");
+        }
+        ScheduleDTO schedule = scheduleRepository.findScheduleDTOById(request.getScheduleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule", "id", request.getScheduleId()));
 
         User markedBy = userRepository.findById(markedByUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", markedByUserId));
 
+        // Last record wins if a student is listed twice
+        Map<Long, MarkAttendanceRequest.StudentAttendance> records = new LinkedHashMap<>();
+        request.getAttendanceRecords().forEach(record -> records.put(record.getStudentId(), record));
+
+        Map<Long, Student> students = studentRepository.findAllWithUserByIdIn(records.keySet()).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        for (Long studentId : records.keySet()) {
+            if (!students.containsKey(studentId)) {
+                throw new ResourceNotFoundException("Student", "id", studentId);
+            }
+        }
+
+        // Counter deltas are taken from these rows, so nobody may change them before the upsert
+        attendanceRepository.lockLessonDay(request.getScheduleId(), request.getDate());
+        Map<Long, Attendance> existing = attendanceRepository
+                .findForUpdateByScheduleIdAndDate(request.getScheduleId(), request.getDate()).stream()
+                .collect(Collectors.toMap(attendance -> attendance.getStudent().getId(), Function.identity()));
+
+        // Rows are written in student order, attendance before counters, like check-ins, so the two cannot deadlock
+        List<MarkAttendanceRequest.StudentAttendance> changed = records.values().stream()
+                .filter(record -> isChanged(existing.get(record.getStudentId()), record, markedByUserId))
+                .sorted(Comparator.comparing(MarkAttendanceRequest.StudentAttendance::getStudentId))
+                .collect(Collectors.toList());
+
+        Map<Long, Object[]> written = new HashMap<>();
+        if (!changed.isEmpty()) {
+            attendanceRepository.upsertAll(request.getScheduleId(), request.getDate(), markedByUserId,
+                    LocalDateTime.now(),
+                    changed.stream().map(MarkAttendanceRequest.StudentAttendance::getStudentId).toArray(Long[]::new),
+                    changed.stream().map(record -> record.getStatus().name()).toArray(String[]::new),
+                    changed.stream().map(MarkAttendanceRequest.StudentAttendance::getNotes).toArray(String[]::new))
+                    .forEach(row -> written.put(((Number) row[1]).longValue(), row));
+            updateCounters(schedule.getSubjectId(), request.getDate(), changed, existing);
+        }
+
         return request.getAttendanceRecords().stream()
                 .map(record -> {
-                    Student student = studentRepository.findById(record.getStudentId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Student", "id", record.getStudentId()));
-
-                    // Check if attendance already exists for this student/schedule/date
-                    Attendance attendance = attendanceRepository
-                            .findByStudentIdAndScheduleIdAndDate(record.getStudentId(), request.getScheduleId(),
-                                    request.getDate())
-                            .orElse(Attendance.builder()
-                                    .student(student)
-                                    .schedule(schedule)
-                                    .date(request.getDate())
-                                    .build());
-
-                    attendance.setStatus(record.getStatus());
-                    attendance.setNotes(record.getNotes());
-                    attendance.setMarkedBy(markedBy);
-
-                    attendance = attendanceRepository.save(attendance);
-                    return mapToDTO(attendance);
+                    Long studentId = record.getStudentId();
+                    MarkAttendanceRequest.StudentAttendance stored = records.get(studentId);
+                    Object[] row = written.get(studentId);
+                    Attendance previous = existing.get(studentId);
+                    return AttendanceDTO.builder()
+                            .id(row != null ? ((Number) row[0]).longValue() : previous.getId())
+                            .studentId(studentId)
+                            .studentName(students.get(studentId).getUser().getFullName())
+                            .scheduleId(schedule.getId())
+                            .subjectName(schedule.getSubjectName())
+                            .date(request.getDate())
+                            .status(stored.getStatus())
+                            .notes(stored.getNotes())
+                            .markedByName(markedBy.getFullName())
+                            .markedAt(row != null ? toLocalDateTime(row[2]) : previous.getMarkedAt())
+                            .build();
                 })
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Writes the self check-ins of one lesson in one statement. A student who already has attendance for the
+     * lesson keeps it, so a teacher's mark is never overwritten. Returns the number of check-ins written.
+     */
+    @Transactional
+    public int recordCheckIns(Long scheduleId, Long subjectId, LocalDate date, List<CheckIn> checkIns) {
+        attendanceRepository.lockLessonDay(scheduleId, date);
+        List<CheckIn> sorted = checkIns.stream().sorted(Comparator.comparing(CheckIn::studentId)).toList();
+        List<Object[]> inserted = attendanceRepository.insertAllAbsent(scheduleId, date,
+                sorted.stream().map(CheckIn::studentId).toArray(Long[]::new),
+                sorted.stream().map(checkIn -> checkIn.status().name()).toArray(String[]::new),
+                sorted.stream().map(CheckIn::userId).toArray(Long[]::new),
+                sorted.stream().map(CheckIn::at).toArray(LocalDateTime[]::new));
+
+        Map<CounterKey, Long> deltas = new TreeMap<>(COUNTER_ORDER);
+        inserted.forEach(row -> deltas.merge(new CounterKey(((Number) row[0]).longValue(),
+                AttendanceStatus.valueOf((String) row[1])), 1L, Long::sum));
+        addToCounters(subjectId, date, deltas);
+        return inserted.size();
+    }
+
     public List<AttendanceDTO> getScheduleAttendance(Long scheduleId, LocalDate date) {
-        return attendanceRepository.findByScheduleId(scheduleId)
-                .stream()
-                .filter(a -> a.getDate().equals(date))
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return attendanceRepository.findDTOsByScheduleIdAndDate(scheduleId, date);
+    }
+
+    /**
+     * Attendance of every student of a class in every lesson of the class on that date. The roster and all
+     * marks come from one query; the lessons from the cached weekly timetable, following the term calendar.
+     */
+    public ClassAttendanceGridDTO getClassAttendanceGrid(Long classGroupId, LocalDate date) {
+        Map<Long, ClassAttendanceGridDTO.StudentRow> rows = new LinkedHashMap<>();
+        Set<Long> markedLessons = new HashSet<>();
+        for (Object[] row : attendanceRepository.findClassDayGrid(classGroupId, date)) {
+            ClassAttendanceGridDTO.StudentRow student = rows.computeIfAbsent((Long) row[0],
+                    id -> new ClassAttendanceGridDTO.StudentRow(id, (String) row[1], new ArrayList<>()));
+            if (row[3] != null) {
+                markedLessons.add((Long) row[2]);
+                student.getMarks().add(new ClassAttendanceGridDTO.Mark((Long) row[2], (Long) row[3],
+                        (AttendanceStatus) row[4], (String) row[5]));
+            }
+        }
+
+        DayOfWeek day = termCalendarService.calendar().timetableDay(date);
+        List<ScheduleDTO> lessons = timetableCacheService.get(TimetableCacheService.TimetableKey.classGroup(classGroupId))
+                .lessons().stream()
+                .filter(lesson -> lesson.getDayOfWeek() == day)
+                .collect(Collectors.toCollection(ArrayList::new));
+        lessons.forEach(lesson -> markedLessons.remove(lesson.getId()));
+        if (!markedLessons.isEmpty()) {
+            // Marked in lessons that are no longer in the timetable, or of a student's previous class
+            lessons.addAll(scheduleRepository.findScheduleDTOsByIdIn(markedLessons));
+        }
+        lessons.sort(Comparator.comparing(ScheduleDTO::getStartTime).thenComparing(ScheduleDTO::getId));
+        Map<Long, Integer> column = new HashMap<>();
+        lessons.forEach(lesson -> column.put(lesson.getId(), column.size()));
+        rows.values().forEach(row -> row.getMarks().sort(Comparator.comparing(mark -> column.get(mark.getScheduleId()))));
+
+        return ClassAttendanceGridDTO.builder()
+                .classGroupId(classGroupId)
+                .date(date)
+                .lessons(lessons)
+                .students(List.copyOf(rows.values()))
+                .build();
+    }
+
+    /**
+     * Moves each changed record from the counter of its previous status (if any) to that of its new status,
+     * in a single statement. Deltas are applied in key order so that concurrent markings of the same student
+     * cannot deadlock.
+     */
+    private void updateCounters(Long subjectId, LocalDate date, List<MarkAttendanceRequest.StudentAttendance> changed,
+            Map<Long, Attendance> existing) {
+        Map<CounterKey, Long> deltas = new TreeMap<>(COUNTER_ORDER);
+        for (MarkAttendanceRequest.StudentAttendance record : changed) {
+            Attendance previous = existing.get(record.getStudentId());
+            if (previous != null && previous.getStatus() == record.getStatus()) {
+                continue;
+            }
+            if (previous != null) {
+                deltas.merge(new CounterKey(record.getStudentId(), previous.getStatus()), -1L, Long::sum);
+            }
+            deltas.merge(new CounterKey(record.getStudentId(), record.getStatus()), 1L, Long::sum);
+        }
+        addToCounters(subjectId, date, deltas);
+    }
+
+    private void addToCounters(Long subjectId, LocalDate date, Map<CounterKey, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Long termId = termCalendarService.calendar().termOf(date).map(TermCalendar.TermRange::id).orElse(null);
+        attendanceCounterRepository.addAll(subjectId, termId,
+                deltas.keySet().stream().map(CounterKey::studentId).toArray(Long[]::new),
+                deltas.keySet().stream().map(key -> key.status().name()).toArray(String[]::new),
+                deltas.values().toArray(Long[]::new));
+    }
+
+    private record CounterKey(Long studentId, AttendanceStatus status) {
+    }
+
+    private static final Comparator<CounterKey> COUNTER_ORDER = Comparator.comparing(CounterKey::studentId)
+            .thenComparing(CounterKey::status);
+
+    private static boolean isChanged(Attendance current, MarkAttendanceRequest.StudentAttendance record,
+            Long markedByUserId) {
+        return current == null
+                || current.getStatus() != record.getStatus()
+                || !Objects.equals(current.getNotes(), record.getNotes())
+                || current.getMarkedBy() == null
+                || !current.getMarkedBy().getId().equals(markedByUserId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
     }
 
     private AttendanceDTO mapToDTO(Attendance attendance) {
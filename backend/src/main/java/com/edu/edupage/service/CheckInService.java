@@ -0,0 +1,244 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.CheckInCodeDTO;
+import com.edu.edupage.dto.CheckInResultDTO;
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.entity.AttendanceStatus;
+import com.edu.edupage.entity.Student;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.repository.ScheduleRepository;
+import com.edu.edupage.repository.StudentRepository;
+import com.edu.edupage.security.HmacKeys;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Student self check-in with rotating codes. The code a teacher shows is an HMAC over the lesson, the day
+ * and the current time window, so codes need no storage and expire by themselves; the previous window is
+ * still accepted so a scan at the moment of rotation does not fail. A check-in is answered from memory: a
+ * per-lesson session holds the class roster and who has checked in, and new check-ins go to a write-behind
+ * buffer that is flushed in one statement per lesson. Sessions are rebuilt after a restart; a student who
+ * checks in again then is simply not written twice.
+ */
+@Service
+@Slf4j
+public class CheckInService {
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final int SIGNATURE_BYTES = 12;
+
+    private final AttendanceService attendanceService;
+    private final ScheduleRepository scheduleRepository;
+    private final StudentRepository studentRepository;
+    private final TermCalendarService termCalendarService;
+    private final SecretKeySpec codeKey;
+
+    @Value("${app.check-in.code-ttl-seconds}")
+    private long codeTtlSeconds;
+
+    @Value("${app.check-in.late-after-minutes}")
+    private long lateAfterMinutes;
+
+    @Value("${app.check-in.buffer-capacity}")
+    private int bufferCapacity;
+
+    private final Map<LessonDay, Session> sessions = new ConcurrentHashMap<>();
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private record LessonDay(Long scheduleId, LocalDate date) {
+    }
+
+    /** Roster as user id -> student id, and the check-ins so far by student id. */
+    private record Session(Long subjectId, String subjectName, LocalDateTime lateAfter,
+            Map<Long, Long> students, Map<Long, AttendanceService.CheckIn> checkIns) {
+    }
+
+    private record Pending(LessonDay lesson, AttendanceService.CheckIn checkIn, int attempts) {
+    }
+
+    public CheckInService(AttendanceService attendanceService, ScheduleRepository scheduleRepository,
+            StudentRepository studentRepository, TermCalendarService termCalendarService,
+            @Value("${app.check-in.secret}") String secret) {
+        this.attendanceService = attendanceService;
+        this.scheduleRepository = scheduleRepository;
+        this.studentRepository = studentRepository;
+        this.termCalendarService = termCalendarService;
+        this.codeKey = HmacKeys.derive(secret, "check-in");
+    }
+
+    /** Current code of a lesson taught today, opening its check-in on first use. */
+    public CheckInCodeDTO issueCode(Long scheduleId) {
+        LocalDate today = LocalDate.now();
+        Session session = session(new LessonDay(scheduleId, today));
+        long window = Instant.now().getEpochSecond() / codeTtlSeconds;
+        return CheckInCodeDTO.builder()
+                .scheduleId(scheduleId)
+                .date(today)
+                .code(scheduleId + "." + today.toEpochDay() + "." + window + "." + sign(scheduleId, today, window))
+                .rotatesAt(LocalDateTime.ofInstant(Instant.ofEpochSecond((window + 1) * codeTtlSeconds),
+                        ZoneId.systemDefault()))
+                .checkedIn(session.checkIns().size())
+                .build();
+    }
+
+    /** Checks the student in; a repeated check-in returns the first one. Nothing waits for the database. */
+    public CheckInResultDTO checkIn(String code, Long userId) {
+        LessonDay lesson = verify(code);
+        Session session = session(lesson);
+        Long studentId = session.students().get(userId);
+        if (studentId == null) {
+            throw new IllegalArgumentException("You are not in the class of this lesson");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        AttendanceService.CheckIn checkIn = new AttendanceService.CheckIn(studentId, userId,
+                now.isAfter(session.lateAfter()) ? AttendanceStatus.LATE : AttendanceStatus.PRESENT, now);
+        AttendanceService.CheckIn first = session.checkIns().putIfAbsent(studentId, checkIn);
+        if (first == null) {
+            if (pendingCount.incrementAndGet() > bufferCapacity) {
+                pendingCount.decrementAndGet();
+                session.checkIns().remove(studentId);
+                throw new RejectedExecutionException("Too many check-ins at once, please try again");
+            }
+            pending.add(new Pending(lesson, checkIn, 0));
+        }
+
+        AttendanceService.CheckIn recorded = first != null ? first : checkIn;
+        return CheckInResultDTO.builder()
+                .scheduleId(lesson.scheduleId())
+                .subjectName(session.subjectName())
+                .date(lesson.date())
+                .status(recorded.status())
+                .checkedInAt(recorded.at())
+                .alreadyCheckedIn(first != null)
+                .build();
+    }
+
+    /** Writes the buffered check-ins, one statement per lesson; a failed lesson is retried on later runs. */
+    @Scheduled(fixedDelayString = "${app.check-in.flush-interval-ms}")
+    public void flush() {
+        Map<LessonDay, List<Pending>> byLesson = new LinkedHashMap<>();
+        for (Pending next = pending.poll(); next != null; next = pending.poll()) {
+            byLesson.computeIfAbsent(next.lesson(), lesson -> new ArrayList<>()).add(next);
+        }
+        byLesson.forEach((lesson, batch) -> {
+            Session session = sessions.get(lesson);
+            try {
+                Long subjectId = session != null ? session.subjectId()
+                        : scheduleRepository.findScheduleDTOById(lesson.scheduleId()).map(ScheduleDTO::getSubjectId)
+                                .orElseThrow(() -> new ResourceNotFoundException("Schedule", "id", lesson.scheduleId()));
+                attendanceService.recordCheckIns(lesson.scheduleId(), subjectId, lesson.date(),
+                        batch.stream().map(Pending::checkIn).toList());
+                pendingCount.addAndGet(-batch.size());
+            } catch (RuntimeException e) {
+                retryOrDrop(lesson, batch, session, e);
+            }
+        });
+
+        LocalDate today = LocalDate.now();
+        sessions.keySet().removeIf(lesson -> lesson.date().isBefore(today));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void retryOrDrop(LessonDay lesson, List<Pending> batch, Session session, RuntimeException e) {
+        log.warn("Could not write {} check-ins of lesson {} on {}: {}", batch.size(), lesson.scheduleId(),
+                lesson.date(), e.getMessage());
+        int dropped = 0;
+        for (Pending item : batch) {
+            if (item.attempts() + 1 < MAX_FLUSH_ATTEMPTS) {
+                pending.add(new Pending(lesson, item.checkIn(), item.attempts() + 1));
+                continue;
+            }
+            dropped++;
+            if (session != null) {
+                // Lets the student check in again
+                session.checkIns().remove(item.checkIn().studentId(), item.checkIn());
+            }
+        }
+        if (dropped > 0) {
+            pendingCount.addAndGet(-dropped);
+            log.error("Dropped {} check-ins of lesson {} on {} after {} attempts", dropped, lesson.scheduleId(),
+                    lesson.date(), MAX_FLUSH_ATTEMPTS, e);
+        }
+    }
+
+    private Session session(LessonDay lesson) {
+        return sessions.computeIfAbsent(lesson, this::openSession);
+    }
+
+    private Session openSession(LessonDay lesson) {
+        ScheduleDTO schedule = scheduleRepository.findScheduleDTOById(lesson.scheduleId())
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule", "id", lesson.scheduleId()));
+        if (schedule.getDayOfWeek() != termCalendarService.calendar().timetableDay(lesson.date())) {
+            throw new IllegalArgumentException("Lesson " + lesson.scheduleId() + " is not taught on " + lesson.date());
+        }
+        Map<Long, Long> students = studentRepository.findByClassGroupId(schedule.getClassGroupId()).stream()
+                .collect(Collectors.toMap(student -> student.getUser().getId(), Student::getId));
+        return new Session(schedule.getSubjectId(), schedule.getSubjectName(),
+                lesson.date().atTime(schedule.getStartTime()).plusMinutes(lateAfterMinutes), students,
+                new ConcurrentHashMap<>());
+    }
+
+    /** Lesson and day of a code signed for the current or the previous window. */
+    private LessonDay verify(String code) {
+        String[] parts = code.trim().split("\\.");
+        if (parts.length == 4) {
+            try {
+                Long scheduleId = Long.valueOf(parts[0]);
+                LocalDate date = LocalDate.ofEpochDay(Long.parseLong(parts[1]));
+                long window = Long.parseLong(parts[2]);
+                long current = Instant.now().getEpochSecond() / codeTtlSeconds;
+                if ((window == current || window == current - 1) && MessageDigest.isEqual(
+                        sign(scheduleId, date, window).getBytes(StandardCharsets.UTF_8),
+                        parts[3].getBytes(StandardCharsets.UTF_8))) {
+                    return new LessonDay(scheduleId, date);
+                }
+            } catch (RuntimeException e) {
+                // Not a number or not a date; rejected below
+            }
+        }
+        throw new IllegalArgumentException("Invalid or expired check-in code");
+    }
+
+    private String sign(Long scheduleId, LocalDate date, long window) {
+        try {
+            Mac mac = Mac.getInstance(HmacKeys.ALGORITHM);
+            mac.init(codeKey);
+            byte[] digest = mac.doFinal(("check-in:" + scheduleId + ":" + date + ":" + window)
+                    .getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, SIGNATURE_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.AttendanceExportRow;
+import com.edu.edupage.dto.GradeExportRow;
+import com.edu.edupage.entity.AttendanceStatus;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.repository.AttendanceRepository;
+import com.edu.edupage.repository.ClassGroupRepository;
+import com.edu.edupage.repository.GradeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * CSV exports of attendance and grades for a date range, of one class or the whole school; attendance
+ * includes archived academic years. Rows are read through a server-side cursor and written as they arrive,
+ * so memory use does not grow with the export; they are projections rather than entities, so the
+ * persistence context stays empty too. The writing methods run in their own read-only transaction, which
+ * the PostgreSQL driver needs to use the fetch size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private final AttendanceRepository attendanceRepository;
+    private final GradeRepository gradeRepository;
+    private final ClassGroupRepository classGroupRepository;
+
+    /** Checks the arguments of an export before the response is committed to a 200. */
+    public void checkExport(Long classGroupId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range must not end before it starts");
+        }
+        if (classGroupId != null && !classGroupRepository.existsById(classGroupId)) {
+            throw new ResourceNotFoundException("ClassGroup", "id", classGroupId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeAttendance(Long classGroupId, LocalDate from, LocalDate to, Writer writer) throws IOException {
+        writeRow(writer, "Date", "Class", "Lesson start", "Subject", "Teacher", "Student ID", "Student", "Status",
+                "Notes", "Marked by", "Marked at");
+        writer.flush();
+        try (Stream<Object[]> rows = attendanceRepository.streamForExport(classGroupId, from, to)) {
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                AttendanceExportRow row = toAttendanceRow(it.next());
+                writeRow(writer, row.date(), row.className(), row.lessonStart(), row.subjectName(),
+                        row.teacherName(), row.studentId(), row.studentName(), row.status(), row.notes(),
+                        row.markedByName(), row.markedAt() != null ? row.markedAt().truncatedTo(ChronoUnit.SECONDS) : null);
+            }
+        }
+        writer.flush();
+    }
+
+    @Transactional(readOnly = true)
+    public void writeGrades(Long classGroupId, LocalDate from, LocalDate to, Writer writer) throws IOException {
+        writeRow(writer, "Date", "Class", "Student ID", "Student", "Subject", "Teacher", "Type", "Value",
+                "Max value", "Description");
+        writer.flush();
+        try (Stream<GradeExportRow> rows = gradeRepository.streamForExport(classGroupId, from, to)) {
+            for (Iterator<GradeExportRow> it = rows.iterator(); it.hasNext(); ) {
+                GradeExportRow row = it.next();
+                writeRow(writer, row.date(), row.className(), row.studentId(), row.studentName(), row.subjectName(),
+                        row.teacherName(), row.gradeType(), row.value(), row.maxValue(), row.description());
+            }
+        }
+        writer.flush();
+    }
+
+    private static AttendanceExportRow toAttendanceRow(Object[] row) {
+        return new AttendanceExportRow(
+                row[0] instanceof Date date ? date.toLocalDate() : (LocalDate) row[0],
+                (String) row[1],
+                row[2] instanceof Time time ? time.toLocalTime() : (LocalTime) row[2],
+                (String) row[3],
+                (String) row[4],
+                ((Number) row[5]).longValue(),
+                (String) row[6],
+                AttendanceStatus.valueOf((String) row[7]),
+                (String) row[8],
+                (String) row[9],
+                row[10] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[10]);
+    }
+
+    private static void writeRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    /** RFC 4180 quoting; free text that a spreadsheet would take for a formula is prefixed with a quote. */
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
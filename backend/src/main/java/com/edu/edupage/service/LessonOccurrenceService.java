@@ -0,0 +1,109 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.LessonOccurrenceDTO;
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.scheduling.TermCalendar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Expands weekly timetables into dated lessons using the {@link TermCalendar}. Expansion is lazy and
+ * month by month; expanded months are kept in a bounded LRU cache, each tagged with the timetable and
+ * calendar versions it was built from so that any change makes it stale without explicit eviction.
+ */
+@Service
+public class LessonOccurrenceService {
+
+    private static final Comparator<ScheduleDTO> BY_START = Comparator.comparing(ScheduleDTO::getStartTime)
+            .thenComparing(ScheduleDTO::getId);
+
+    private final TimetableCacheService timetableCacheService;
+    private final TermCalendarService termCalendarService;
+    private final Map<MonthKey, Month> months;
+
+    private record MonthKey(TimetableCacheService.TimetableKey timetable, YearMonth month) {
+    }
+
+    private record Month(long timetableVersion, long calendarVersion, List<LessonOccurrenceDTO> occurrences) {
+    }
+
+    public LessonOccurrenceService(TimetableCacheService timetableCacheService,
+            TermCalendarService termCalendarService,
+            @Value("${app.calendar.cached-months}") int cachedMonths) {
+        this.timetableCacheService = timetableCacheService;
+        this.termCalendarService = termCalendarService;
+        this.months = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MonthKey, Month> eldest) {
+                return size() > cachedMonths;
+            }
+        };
+    }
+
+    /**
+     * Dated lessons of a timetable from {@code from} to {@code to} inclusive, ordered by date and start time.
+     * Months are expanded only as the stream reaches them.
+     */
+    public Stream<LessonOccurrenceDTO> occurrences(TimetableCacheService.TimetableKey key, LocalDate from,
+            LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range must not end before it starts");
+        }
+        YearMonth last = YearMonth.from(to);
+        return Stream.iterate(YearMonth.from(from), month -> !month.isAfter(last), month -> month.plusMonths(1))
+                .flatMap(month -> month(key, month).stream())
+                .dropWhile(occurrence -> occurrence.getDate().isBefore(from))
+                .takeWhile(occurrence -> !occurrence.getDate().isAfter(to));
+    }
+
+    private List<LessonOccurrenceDTO> month(TimetableCacheService.TimetableKey key, YearMonth month) {
+        TimetableCacheService.Timetable timetable = timetableCacheService.get(key);
+        TermCalendar calendar = termCalendarService.calendar();
+        MonthKey monthKey = new MonthKey(key, month);
+        synchronized (months) {
+            Month cached = months.get(monthKey);
+            if (cached != null && cached.timetableVersion() == timetable.version()
+                    && cached.calendarVersion() == calendar.version()) {
+                return cached.occurrences();
+            }
+        }
+
+        List<LessonOccurrenceDTO> occurrences = expand(timetable.lessons(), calendar, month);
+        synchronized (months) {
+            months.put(monthKey, new Month(timetable.version(), calendar.version(), occurrences));
+        }
+        return occurrences;
+    }
+
+    private static List<LessonOccurrenceDTO> expand(List<ScheduleDTO> lessons, TermCalendar calendar,
+            YearMonth month) {
+        Map<DayOfWeek, List<ScheduleDTO>> byDay = new EnumMap<>(DayOfWeek.class);
+        for (ScheduleDTO lesson : lessons) {
+            byDay.computeIfAbsent(lesson.getDayOfWeek(), day -> new ArrayList<>()).add(lesson);
+        }
+        byDay.values().forEach(day -> day.sort(BY_START));
+
+        List<LessonOccurrenceDTO> occurrences = new ArrayList<>();
+        for (LocalDate date = month.atDay(1); !date.isAfter(month.atEndOfMonth()); date = date.plusDays(1)) {
+            DayOfWeek day = calendar.timetableDay(date);
+            if (day == null) {
+                continue;
+            }
+            for (ScheduleDTO lesson : byDay.getOrDefault(day, List.of())) {
+                occurrences.add(new LessonOccurrenceDTO(date, lesson));
+            }
+        }
+        return List.copyOf(occurrences);
+    }
+}
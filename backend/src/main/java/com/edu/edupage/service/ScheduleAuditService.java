@@ -0,0 +1,105 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.ScheduleConflictReportDTO;
+import com.edu.edupage.repository.ScheduleRepository;
+import com.edu.edupage.scheduling.ScheduleConflictSweep;
+import com.edu.edupage.scheduling.VersionedLesson;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Whole-table overlap audit: streams every lesson once in (version, day, start) order and sweeps it for
+ * teacher, class and room conflicts. Runs nightly and on demand; the latest report is kept in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleAuditService {
+
+    private final ScheduleRepository scheduleRepository;
+
+    @Value("${app.schedule.audit.max-reported-conflicts}")
+    private int maxReportedConflicts;
+
+    private volatile ScheduleConflictReportDTO latestReport;
+
+    @Transactional(readOnly = true)
+    public ScheduleConflictReportDTO runAudit() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+
+        List<ScheduleConflictReportDTO.Conflict> conflicts = new ArrayList<>();
+        Map<String, Long> byResource = new TreeMap<>();
+        long[] conflictCount = new long[1];
+        ScheduleConflictSweep sweep = new ScheduleConflictSweep(conflict -> {
+            conflictCount[0]++;
+            byResource.merge(conflict.resource().name(), 1L, Long::sum);
+            if (conflicts.size() < maxReportedConflicts) {
+                conflicts.add(mapToDTO(conflict));
+            }
+        });
+        try (Stream<VersionedLesson> lessons = scheduleRepository.streamAllOrderedByVersionDayAndStart()) {
+            lessons.forEach(sweep::accept);
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        ScheduleConflictReportDTO report = ScheduleConflictReportDTO.builder()
+                .startedAt(startedAt)
+                .durationMillis(elapsedNanos / 1_000_000)
+                .lessonsScanned(sweep.lessonCount())
+                .lessonsPerSecond(elapsedNanos > 0 ? sweep.lessonCount() * 1_000_000_000L / elapsedNanos : 0)
+                .conflictCount(conflictCount[0])
+                .conflictsByResource(byResource)
+                .truncated(conflictCount[0] > conflicts.size())
+                .conflicts(conflicts)
+                .build();
+        latestReport = report;
+        return report;
+    }
+
+    @Scheduled(cron = "${app.schedule.audit.cron}")
+    @Transactional(readOnly = true)
+    public void runNightlyAudit() {
+        ScheduleConflictReportDTO report = runAudit();
+        if (report.getConflictCount() > 0) {
+            log.warn("Schedule audit found {} conflicts {} in {} lessons ({} ms)", report.getConflictCount(),
+                    report.getConflictsByResource(), report.getLessonsScanned(), report.getDurationMillis());
+        } else {
+            log.info("Schedule audit found no conflicts in {} lessons ({} ms)", report.getLessonsScanned(),
+                    report.getDurationMillis());
+        }
+    }
+
+    /** Report of the last run since startup, or {@code null} if the audit has not run yet. */
+    public ScheduleConflictReportDTO getLatestReport() {
+        return latestReport;
+    }
+
+    private static ScheduleConflictReportDTO.Conflict mapToDTO(ScheduleConflictSweep.Conflict conflict) {
+        VersionedLesson first = conflict.first();
+        VersionedLesson second = conflict.second();
+        return ScheduleConflictReportDTO.Conflict.builder()
+                .versionId(second.versionId())
+                .resource(conflict.resource().name())
+                .resourceId(String.valueOf(conflict.resourceId()))
+                .dayOfWeek(second.dayOfWeek())
+                .firstScheduleId(first.id())
+                .firstStartTime(first.startTime())
+                .firstEndTime(first.endTime())
+                .secondScheduleId(second.id())
+                .secondStartTime(second.startTime())
+                .secondEndTime(second.endTime())
+                .build();
+    }
+}
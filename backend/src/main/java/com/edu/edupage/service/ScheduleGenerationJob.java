@@ -0,0 +1,78 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.ScheduleGenerationJobDTO;
+import com.edu.edupage.enums.ScheduleGenerationPhase;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Mutable state of one asynchronous generation run, written by the worker and read by status polls. */
+class ScheduleGenerationJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicInteger lessonsPlaced = new AtomicInteger();
+    private final List<String> diagnostics = new ArrayList<>();
+
+    private volatile ScheduleGenerationPhase phase = ScheduleGenerationPhase.QUEUED;
+    private volatile int lessonsTotal;
+    private volatile List<ScheduleDTO> schedules;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    UUID getId() {
+        return id;
+    }
+
+    LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    void enter(ScheduleGenerationPhase phase) {
+        this.phase = phase;
+    }
+
+    void setLessonsTotal(int lessonsTotal) {
+        this.lessonsTotal = lessonsTotal;
+    }
+
+    /** Solvers may report from several threads and restarts; the job shows the best count seen. */
+    void reportPlaced(int placed, int total) {
+        lessonsPlaced.accumulateAndGet(placed, Math::max);
+    }
+
+    synchronized void addDiagnostics(List<String> messages) {
+        diagnostics.addAll(messages);
+    }
+
+    void complete(List<ScheduleDTO> schedules) {
+        this.schedules = schedules;
+        this.lessonsPlaced.set(schedules.size());
+        this.finishedAt = LocalDateTime.now();
+        this.phase = ScheduleGenerationPhase.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.phase = ScheduleGenerationPhase.FAILED;
+    }
+
+    synchronized ScheduleGenerationJobDTO toDTO() {
+        return ScheduleGenerationJobDTO.builder()
+                .id(id)
+                .phase(phase)
+                .lessonsPlaced(lessonsPlaced.get())
+                .lessonsTotal(lessonsTotal)
+                .diagnostics(List.copyOf(diagnostics))
+                .schedules(schedules)
+                .error(error)
+                .submittedAt(submittedAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+}
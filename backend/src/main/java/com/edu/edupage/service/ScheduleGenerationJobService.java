@@ -0,0 +1,104 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.GenerateScheduleRequest;
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.ScheduleGenerationJobDTO;
+import com.edu.edupage.enums.ScheduleGenerationPhase;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.scheduling.TimetableSolution;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs schedule generation in the background on a bounded executor. Loading, solving and saving
+ * each use their own short transaction, so no connection is held while the solver runs. Submissions
+ * beyond the pool and queue capacity are rejected instead of piling up.
+ */
+@Service
+@Slf4j
+public class ScheduleGenerationJobService {
+
+    private final ScheduleService scheduleService;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, ScheduleGenerationJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.schedule.jobs.retention-minutes}")
+    private long retentionMinutes;
+
+    public ScheduleGenerationJobService(ScheduleService scheduleService,
+            @Value("${app.schedule.jobs.pool-size}") int poolSize,
+            @Value("${app.schedule.jobs.queue-capacity}") int queueCapacity) {
+        this.scheduleService = scheduleService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, "schedule-generation-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ScheduleGenerationJobDTO submit(GenerateScheduleRequest request) {
+        evictFinishedJobs();
+
+        ScheduleGenerationJob job = new ScheduleGenerationJob();
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, request));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    public ScheduleGenerationJobDTO getJob(UUID jobId) {
+        ScheduleGenerationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("ScheduleGenerationJob", "id", jobId);
+        }
+        return job.toDTO();
+    }
+
+    private void run(ScheduleGenerationJob job, GenerateScheduleRequest request) {
+        try {
+            job.enter(ScheduleGenerationPhase.LOADING);
+            ScheduleService.GenerationPlan plan = scheduleService.planGeneration(request);
+            job.setLessonsTotal(plan.problem().lessons().size());
+
+            job.enter(ScheduleGenerationPhase.SOLVING);
+            TimetableSolution solution = scheduleService.solve(plan.problem(), request, job::reportPlaced);
+            job.addDiagnostics(scheduleService.describeUnplacedLessons(plan, solution));
+
+            job.enter(ScheduleGenerationPhase.SAVING);
+            List<String> diagnostics = new ArrayList<>();
+            List<ScheduleDTO> schedules = scheduleService.saveGeneratedSchedules(plan, solution, diagnostics);
+            job.addDiagnostics(diagnostics);
+            job.complete(schedules);
+        } catch (Exception e) {
+            log.warn("Schedule generation job {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,80 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.repository.ScheduleRepository;
+import com.edu.edupage.scheduling.BookedLesson;
+import com.edu.edupage.scheduling.ScheduleChangedEvent;
+import com.edu.edupage.scheduling.ScheduleIntervalIndex;
+import com.edu.edupage.scheduling.TimetableActivatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Keeps the {@link ScheduleIntervalIndex} in step with the active timetable version: loaded once at startup and
+ * updated from {@link ScheduleChangedEvent}s after each commit. Only reflects changes made through this
+ * application instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleIndexService {
+
+    private final ScheduleRepository scheduleRepository;
+    private final TimetableVersionService timetableVersionService;
+    private final ScheduleIntervalIndex index = new ScheduleIntervalIndex();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        long started = System.currentTimeMillis();
+        index.replaceAll(scheduleRepository.findAllBookedLessons(timetableVersionService.activeVersionId()));
+        ready = true;
+        log.info("Schedule index warmed with {} lessons in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onScheduleChanged(ScheduleChangedEvent event) {
+        event.removed().forEach(lesson -> index.remove(lesson.id()));
+        event.added().forEach(index::add);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTimetableActivated(TimetableActivatedEvent event) {
+        index.replaceAll(scheduleRepository.findAllBookedLessons(event.versionId()));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Current lessons from the index, or from the database while the index is still warming up. */
+    public List<BookedLesson> bookedLessons() {
+        return ready ? index.snapshot() : scheduleRepository.findAllBookedLessons(timetableVersionService.activeVersionId());
+    }
+
+    public Long findOverlap(ScheduleIntervalIndex.Resource resource, Object resourceId, DayOfWeek day,
+            LocalTime startTime, LocalTime endTime, Long excludeId) {
+        return index.findOverlap(resource, resourceId, day, startTime, endTime, excludeId);
+    }
+
+    public int countLessons(ScheduleIntervalIndex.Resource resource, Object resourceId, DayOfWeek day) {
+        return index.count(resource, resourceId, day);
+    }
+
+    public BookedLesson findRunningAt(ScheduleIntervalIndex.Resource resource, Object resourceId, DayOfWeek day,
+            LocalTime time) {
+        return index.findRunningAt(resource, resourceId, day, time);
+    }
+
+    public BookedLesson findNext(ScheduleIntervalIndex.Resource resource, Object resourceId, DayOfWeek day,
+            LocalTime time) {
+        return index.findNext(resource, resourceId, day, time);
+    }
+}
@@ -1,19 +1,41 @@
 package com.edu.edupage.service;
 
 import com.edu.edupage.dto.CreateScheduleRequest;
+import com.edu.edupage.dto.CurrentLessonDTO;
 import com.edu.edupage.dto.GenerateScheduleRequest;
+import com.edu.edupage.dto.RepairScheduleRequest;
 import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.ScheduleRepairResultDTO;
+import com.edu.edupage.dto.ScheduleSimulationDTO;
+import com.edu.edupage.dto.SimulateScheduleRequest;
 import com.edu.edupage.entity.*;
+import com.edu.edupage.enums.RoomType;
+import com.edu.edupage.enums.ScheduleGenerationMode;
 import com.edu.edupage.exception.ResourceNotFoundException;
 import com.edu.edupage.repository.*;
+import com.edu.edupage.scheduling.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,33 +46,74 @@ public class ScheduleService {
     private final ClassGroupRepository classGroupRepository;
     private final TeacherRepository teacherRepository;
     private final SubjectRepository subjectRepository;
+    private final RoomRepository roomRepository;
+    private final StudentRepository studentRepository;
+    private final GreedyTimetableSolver greedySolver;
+    private final AnnealingTimetableOptimizer optimizer;
+    private final ScheduleIndexService scheduleIndexService;
+    private final TimetableVersionService timetableVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.schedule.optimizer.default-time-budget-ms}")
+    private long defaultTimeBudgetMillis;
+
+    @Value("${app.schedule.optimizer.max-time-budget-ms}")
+    private long maxTimeBudgetMillis;
 
     public List<ScheduleDTO> getWeeklyScheduleForClass(Long classGroupId) {
-        return scheduleRepository.findWeeklyScheduleByClassGroup(classGroupId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return scheduleRepository.findWeeklyScheduleDTOsByClassGroup(timetableVersionService.activeVersionId(),
+                classGroupId);
     }
 
     public List<ScheduleDTO> getWeeklyScheduleForTeacher(Long teacherId) {
-        return scheduleRepository.findWeeklyScheduleByTeacher(teacherId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return scheduleRepository.findWeeklyScheduleDTOsByTeacher(timetableVersionService.activeVersionId(),
+                teacherId);
     }
 
     public List<ScheduleDTO> getAllSchedules() {
-        return scheduleRepository.findAll()
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return scheduleRepository.findAllScheduleDTOs(timetableVersionService.activeVersionId());
+    }
+
+    public List<ScheduleDTO> getSchedulesOfVersion(Long versionId) {
+        return scheduleRepository.findAllScheduleDTOs(versionId);
+    }
+
+    /**
+     * Lesson of a class, teacher or room in progress at {@code at} and the one after it, looked up in the
+     * schedule index; only the (at most two) matches are read from the database.
+     */
+    public CurrentLessonDTO getCurrentLesson(ScheduleIntervalIndex.Resource resource, Object resourceId,
+            LocalDateTime at) {
+        DayOfWeek day = at.getDayOfWeek();
+        LocalTime time = at.toLocalTime();
+        BookedLesson current = scheduleIndexService.findRunningAt(resource, resourceId, day, time);
+        BookedLesson next = scheduleIndexService.findNext(resource, resourceId, day, time);
+
+        CurrentLessonDTO.CurrentLessonDTOBuilder result = CurrentLessonDTO.builder().at(at);
+        if (current != null) {
+            result.current(scheduleRepository.findScheduleDTOById(current.id()).orElse(null));
+        }
+        if (next != null) {
+            int days = (next.dayOfWeek().getValue() - day.getValue() + 7) % 7;
+            if (days == 0 && !next.startTime().isAfter(time)) {
+                days = 7;
+            }
+            result.next(scheduleRepository.findScheduleDTOById(next.id()).orElse(null))
+                    .nextStartsAt(at.toLocalDate().plusDays(days).atTime(next.startTime()));
+        }
+        return result.build();
     }
 
     @Transactional
     public ScheduleDTO createSchedule(CreateScheduleRequest request) {
+        TimetableVersion version = timetableVersionService.requireWritable(request.getVersionId());
+        boolean live = timetableVersionService.isActive(version.getId());
+
         // Validate no conflicts
-        validateNoConflicts(request.getTeacherId(), request.getClassGroupId(),
-                request.getDayOfWeek(), request.getStartTime(), request.getEndTime(), null);
+        if (live) {
+            validateNoConflicts(request.getTeacherId(), request.getClassGroupId(), request.getRoom(),
+                    request.getDayOfWeek(), request.getStartTime(), request.getEndTime(), null);
+        }
 
         ClassGroup classGroup = classGroupRepository.findById(request.getClassGroupId())
                 .orElseThrow(() -> new ResourceNotFoundException("ClassGroup", "id", request.getClassGroupId()));
@@ -58,10 +121,15 @@ public class ScheduleService {
         Teacher teacher = teacherRepository.findById(request.getTeacherId())
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", request.getTeacherId()));
 
+        validateTeacherAvailability(teacher, request.getDayOfWeek(), request.getStartTime(), request.getEndTime(),
+                live);
+        validateRoom(request.getRoom());
+
         Subject subject = subjectRepository.findById(request.getSubjectId())
                 .orElseThrow(() -> new ResourceNotFoundException("Subject", "id", request.getSubjectId()));
 
         Schedule schedule = Schedule.builder()
+                .version(version)
                 .classGroup(classGroup)
                 .teacher(teacher)
                 .subject(subject)
@@ -73,117 +141,619 @@ public class ScheduleService {
                 .build();
 
         schedule = scheduleRepository.save(schedule);
+        if (live) {
+            eventPublisher.publishEvent(ScheduleChangedEvent.added(List.of(toBookedLesson(schedule))));
+        }
         return mapToDTO(schedule);
     }
 
     @Transactional
     public List<ScheduleDTO> generateSchedule(GenerateScheduleRequest request) {
-        List<Schedule> generatedSchedules = new ArrayList<>();
+        GenerationPlan plan = planGeneration(request);
+        TimetableSolution solution = solve(plan.problem(), request, SolverProgress.NONE);
+        return saveGeneratedSchedules(plan, solution, new ArrayList<>());
+    }
 
-        LocalTime dayStart = request.getDayStartTime() != null ? request.getDayStartTime() : LocalTime.of(8, 0);
-        LocalTime dayEnd = request.getDayEndTime() != null ? request.getDayEndTime() : LocalTime.of(15, 0);
-        int lessonDuration = request.getLessonDurationMinutes() != null ? request.getLessonDurationMinutes() : 45;
-        int breakDuration = request.getBreakDurationMinutes() != null ? request.getBreakDurationMinutes() : 15;
+    /**
+     * Dry run of {@link #generateSchedule}: plans against the in-memory schedule index (or the requested
+     * draft), solves and scores the result without writing anything. Additional teachers get negative ids in the result.
+     */
+    @Transactional(readOnly = true)
+    public ScheduleSimulationDTO simulateSchedule(SimulateScheduleRequest request) {
+        long started = System.nanoTime();
+
+        List<GenerateScheduleRequest.TeacherSubjectMapping> mappings =
+                new ArrayList<>(request.getTeacherSubjectMappings());
+        Map<Long, Teacher> additionalTeachers = new HashMap<>();
+        List<SimulateScheduleRequest.HypotheticalTeacher> hypothetical =
+                request.getAdditionalTeachers() != null ? request.getAdditionalTeachers() : List.of();
+        for (int i = 0; i < hypothetical.size(); i++) {
+            SimulateScheduleRequest.HypotheticalTeacher candidate = hypothetical.get(i);
+            Teacher teacher = Teacher.builder()
+                    .id(-(i + 1L))
+                    .user(User.builder()
+                            .firstName(candidate.getFirstName())
+                            .lastName(candidate.getLastName() != null ? candidate.getLastName() : "")
+                            .build())
+                    .build();
+            additionalTeachers.put(teacher.getId(), teacher);
+
+            GenerateScheduleRequest.TeacherSubjectMapping mapping = new GenerateScheduleRequest.TeacherSubjectMapping();
+            mapping.setTeacherId(teacher.getId());
+            mapping.setSubjectId(candidate.getSubjectId());
+            mapping.setClassGroupIds(candidate.getClassGroupIds());
+            mappings.add(mapping);
+        }
 
-        DayOfWeek[] weekDays = { DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
-                DayOfWeek.THURSDAY, DayOfWeek.FRIDAY };
+        Map<Long, Integer> hoursPerWeek = request.getHoursPerWeek() != null ? request.getHoursPerWeek() : Map.of();
+        hoursPerWeek.forEach((subjectId, hours) -> {
+            if (hours == null || hours < 0) {
+                throw new IllegalArgumentException("Hours per week must not be negative for subject " + subjectId);
+            }
+        });
+
+        List<BookedLesson> bookedLessons = request.getVersionId() != null
+                ? scheduleRepository.findAllBookedLessons(timetableVersionService.requireDraft(request.getVersionId()).getId())
+                : scheduleIndexService.bookedLessons();
+        GenerationPlan plan = planGeneration(request, mappings, additionalTeachers, hoursPerWeek, bookedLessons);
+        TimetableSolution solution = solve(plan.problem(), request, SolverProgress.NONE);
+
+        SlotLayout layout = plan.problem().layout();
+        List<LessonDemand> lessons = plan.problem().lessons();
+        OccupancyGrid week = plan.problem().occupancy().copy();
+        List<ScheduleDTO> schedules = new ArrayList<>();
+        for (int i = 0; i < lessons.size(); i++) {
+            if (!solution.isPlaced(i)) {
+                continue;
+            }
+            LessonDemand lesson = lessons.get(i);
+            int day = layout.dayOfCell(solution.cellOf(i));
+            int slot = layout.slotOfCell(solution.cellOf(i));
+            week.place(lesson.teacherId(), lesson.classGroupId(), solution.roomOf(i), day, slot);
+            schedules.add(mapToDTO(toSchedule(plan, null, lesson, day, slot, solution.roomOf(i))));
+        }
 
-        for (GenerateScheduleRequest.TeacherSubjectMapping mapping : request.getTeacherSubjectMappings()) {
-            Teacher teacher = teacherRepository.findById(mapping.getTeacherId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", mapping.getTeacherId()));
+        List<ScheduleSimulationDTO.TeacherLoad> teacherLoads = new ArrayList<>();
+        int teacherGaps = 0;
+        for (Teacher teacher : plan.teachers().values()) {
+            int total = 0;
+            int busiestDay = 0;
+            int gaps = 0;
+            for (int day = 0; day < layout.dayCount(); day++) {
+                long mask = week.teacherMask(teacher.getId(), day);
+                total += Long.bitCount(mask);
+                busiestDay = Math.max(busiestDay, Long.bitCount(mask));
+                gaps += OccupancyGrid.idleGaps(mask);
+            }
+            teacherGaps += gaps;
+            teacherLoads.add(ScheduleSimulationDTO.TeacherLoad.builder()
+                    .teacherId(teacher.getId())
+                    .teacherName(teacher.getUser().getFullName().trim())
+                    .lessonsPerWeek(total)
+                    .maxLessonsPerDay(busiestDay)
+                    .gaps(gaps)
+                    .build());
+        }
+        teacherLoads.sort(Comparator.comparing(ScheduleSimulationDTO.TeacherLoad::getTeacherName));
 
-            Subject subject = subjectRepository.findById(mapping.getSubjectId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Subject", "id", mapping.getSubjectId()));
+        int classGaps = 0;
+        for (Long classGroupId : plan.classGroups().keySet()) {
+            for (int day = 0; day < layout.dayCount(); day++) {
+                classGaps += OccupancyGrid.idleGaps(week.classGroupMask(classGroupId, day));
+            }
+        }
+
+        return ScheduleSimulationDTO.builder()
+                .schedules(schedules)
+                .lessonsTotal(lessons.size())
+                .lessonsPlaced(schedules.size())
+                .lessonsUnplaced(solution.unplacedCount())
+                .teacherGaps(teacherGaps)
+                .classGaps(classGaps)
+                .cost(solution.getCost())
+                .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                .teacherLoads(teacherLoads)
+                .diagnostics(describeUnplacedLessons(plan, solution))
+                .build();
+    }
+
+    /**
+     * Resolves the request into a timetable problem. Loads the whole week once; every conflict check
+     * in the solvers is a bit test against the resulting grid.
+     */
+    @Transactional(readOnly = true)
+    public GenerationPlan planGeneration(GenerateScheduleRequest request) {
+        Long versionId = request.getVersionId() != null
+                ? timetableVersionService.requireDraft(request.getVersionId()).getId()
+                : timetableVersionService.activeVersionId();
+        return planGeneration(request, request.getTeacherSubjectMappings(), Map.of(), Map.of(),
+                scheduleRepository.findAllBookedLessons(versionId));
+    }
+
+    private GenerationPlan planGeneration(GenerateScheduleRequest request,
+            List<GenerateScheduleRequest.TeacherSubjectMapping> mappings, Map<Long, Teacher> additionalTeachers,
+            Map<Long, Integer> hoursPerWeek, Collection<BookedLesson> bookedLessons) {
+        SlotLayout layout = layoutOf(request);
+
+        Map<Long, Teacher> teachers = new HashMap<>(loadTeachers(request.getTeacherSubjectMappings()));
+        teachers.putAll(additionalTeachers);
+        Map<Long, Subject> subjects = loadById(subjectRepository.findAllById(mappedIds(mappings,
+                GenerateScheduleRequest.TeacherSubjectMapping::getSubjectId)), Subject::getId);
+        Map<Long, ClassGroup> classGroups = loadById(classGroupRepository.findAllById(mappings
+                .stream()
+                .flatMap(m -> m.getClassGroupIds().stream())
+                .collect(Collectors.toSet())), ClassGroup::getId);
+
+        List<Room> rooms = roomRepository.findAllByOrderByCapacityAscNameAsc();
+        Map<Long, Long> classSizes = countStudents(classGroups.keySet());
+
+        List<LessonDemand> lessons = new ArrayList<>();
+        for (GenerateScheduleRequest.TeacherSubjectMapping mapping : mappings) {
+            Teacher teacher = require(teachers, mapping.getTeacherId(), "Teacher");
+            Subject subject = require(subjects, mapping.getSubjectId(), "Subject");
+            int hours = hoursPerWeek.getOrDefault(subject.getId(), subject.getHoursPerWeek());
 
             for (Long classGroupId : mapping.getClassGroupIds()) {
-                ClassGroup classGroup = classGroupRepository.findById(classGroupId)
-                        .orElseThrow(() -> new ResourceNotFoundException("ClassGroup", "id", classGroupId));
-
-                int lessonsNeeded = subject.getHoursPerWeek();
-                int lessonsScheduled = 0;
-
-                outerLoop: for (DayOfWeek day : weekDays) {
-                    LocalTime currentTime = dayStart;
-                    int lessonNumber = 1;
-
-                    while (currentTime.plusMinutes(lessonDuration).isBefore(dayEnd) ||
-                            currentTime.plusMinutes(lessonDuration).equals(dayEnd)) {
-
-                        LocalTime endTime = currentTime.plusMinutes(lessonDuration);
-
-                        // Check for conflicts
-                        List<Schedule> teacherConflicts = scheduleRepository.findConflictingTeacherSchedules(
-                                teacher.getId(), day, currentTime, endTime);
-                        List<Schedule> classConflicts = scheduleRepository.findConflictingClassSchedules(
-                                classGroup.getId(), day, currentTime, endTime);
-
-                        if (teacherConflicts.isEmpty() && classConflicts.isEmpty()) {
-                            Schedule schedule = Schedule.builder()
-                                    .classGroup(classGroup)
-                                    .teacher(teacher)
-                                    .subject(subject)
-                                    .dayOfWeek(day)
-                                    .startTime(currentTime)
-                                    .endTime(endTime)
-                                    .lessonNumber(lessonNumber)
-                                    .build();
-
-                            schedule = scheduleRepository.save(schedule);
-                            generatedSchedules.add(schedule);
-                            lessonsScheduled++;
-
-                            if (lessonsScheduled >= lessonsNeeded) {
-                                break outerLoop;
-                            }
-                        }
-
-                        currentTime = currentTime.plusMinutes(lessonDuration + breakDuration);
-                        lessonNumber++;
-                    }
+                ClassGroup classGroup = require(classGroups, classGroupId, "ClassGroup");
+                List<String> candidateRooms = candidateRooms(rooms, subject,
+                        classSizes.getOrDefault(classGroupId, 0L));
+                for (int i = 0; i < hours; i++) {
+                    lessons.add(new LessonDemand(teacher.getId(), subject.getId(), classGroup.getId(), candidateRooms,
+                            !rooms.isEmpty()));
                 }
             }
         }
 
-        return generatedSchedules.stream()
+        OccupancyGrid occupancy = OccupancyGrid.of(layout, bookedLessons);
+        restrictTeachers(occupancy, teachers.values());
+        TimetableProblem problem = new TimetableProblem(layout, occupancy, lessons);
+        return new GenerationPlan(request.getVersionId(), problem, teachers, subjects, classGroups);
+    }
+
+    /**
+     * Applies a delta to an existing timetable: teachers leaving (their lessons go to the replacement,
+     * in the same period when the replacement is free there), new or changed assignments and changed
+     * weekly hours. Every other lesson stays where it is and is only an obstacle for the solver, which
+     * places just the affected lessons. Works on the given draft, or on a copy of the active timetable
+     * that is activated afterwards.
+     */
+    @Transactional
+    public ScheduleRepairResultDTO repairSchedule(RepairScheduleRequest request) {
+        long started = System.nanoTime();
+        TimetableVersion version = request.getVersionId() != null
+                ? timetableVersionService.requireDraft(request.getVersionId())
+                : timetableVersionService.createDraft("Repaired " + LocalDateTime.now().withNano(0),
+                        timetableVersionService.activeVersionId());
+        SlotLayout layout = layoutOf(request);
+        List<String> diagnostics = new ArrayList<>();
+
+        Set<Long> removedTeachers = request.getRemovedTeacherIds() != null
+                ? Set.copyOf(request.getRemovedTeacherIds())
+                : Set.of();
+        Map<Long, Long> replacements = request.getReplacementTeachers() != null
+                ? request.getReplacementTeachers()
+                : Map.of();
+        Map<ClassSubject, Long> assigned = new HashMap<>();
+        for (GenerateScheduleRequest.TeacherSubjectMapping mapping : request.getTeacherSubjectMappings()) {
+            for (Long classGroupId : mapping.getClassGroupIds()) {
+                assigned.put(new ClassSubject(classGroupId, mapping.getSubjectId()), mapping.getTeacherId());
+            }
+        }
+
+        // Who teaches each current lesson after the change; lessons of a removed teacher without a
+        // replacement are dropped
+        Map<ClassSubject, List<ScheduleDTO>> current = new LinkedHashMap<>();
+        Map<ClassSubject, Long> teacherOf = new HashMap<>();
+        Map<Long, Long> newTeacher = new HashMap<>();
+        List<ScheduleDTO> removed = new ArrayList<>();
+        Map<Long, Integer> droppedByTeacher = new LinkedHashMap<>();
+        for (ScheduleDTO lesson : scheduleRepository.findAllScheduleDTOs(version.getId())) {
+            ClassSubject key = new ClassSubject(lesson.getClassGroupId(), lesson.getSubjectId());
+            Long teacherId = assigned.getOrDefault(key, lesson.getTeacherId());
+            if (removedTeachers.contains(teacherId)) {
+                teacherId = replacements.get(teacherId);
+            }
+            if (teacherId == null) {
+                removed.add(lesson);
+                droppedByTeacher.merge(lesson.getTeacherId(), 1, Integer::sum);
+                continue;
+            }
+            if (!teacherId.equals(lesson.getTeacherId())) {
+                newTeacher.put(lesson.getId(), teacherId);
+            }
+            teacherOf.put(key, teacherId);
+            current.computeIfAbsent(key, k -> new ArrayList<>()).add(lesson);
+        }
+        droppedByTeacher.forEach((teacherId, count) -> diagnostics.add(String.format(
+                "%d lessons of teacher %d were removed without a replacement", count, teacherId)));
+        assigned.forEach((key, teacherId) -> teacherOf.putIfAbsent(key,
+                removedTeachers.contains(teacherId) ? replacements.get(teacherId) : teacherId));
+
+        Set<ClassSubject> keys = new LinkedHashSet<>(current.keySet());
+        keys.addAll(assigned.keySet());
+        Map<Long, Subject> subjects = loadById(subjectRepository.findAllById(keys.stream()
+                .map(ClassSubject::subjectId)
+                .collect(Collectors.toSet())), Subject::getId);
+        Map<Long, Integer> hoursPerWeek = request.getHoursPerWeek() != null ? request.getHoursPerWeek() : Map.of();
+
+        // Weekly hours: surplus lessons are removed, missing ones queued for placement
+        Map<ClassSubject, Integer> missing = new LinkedHashMap<>();
+        for (ClassSubject key : keys) {
+            Subject subject = require(subjects, key.subjectId(), "Subject");
+            List<ScheduleDTO> lessons = current.getOrDefault(key, new ArrayList<>());
+            int target;
+            if (hoursPerWeek.containsKey(key.subjectId())) {
+                target = hoursPerWeek.get(key.subjectId());
+            } else if (lessons.isEmpty()) {
+                target = subject.getHoursPerWeek(); // newly assigned
+            } else {
+                target = lessons.size();
+            }
+            if (target < 0) {
+                throw new IllegalArgumentException("Hours per week must not be negative for subject " + key.subjectId());
+            }
+            if (lessons.size() > target) {
+                List<ScheduleDTO> surplus = surplusLessons(lessons, lessons.size() - target, newTeacher.keySet());
+                lessons.removeAll(surplus);
+                surplus.forEach(lesson -> newTeacher.remove(lesson.getId()));
+                removed.addAll(surplus);
+            } else if (lessons.size() < target) {
+                if (teacherOf.get(key) == null) {
+                    diagnostics.add(String.format("No teacher for subject %d in class %d", key.subjectId(),
+                            key.classGroupId()));
+                } else {
+                    missing.put(key, target - lessons.size());
+                }
+            }
+        }
+
+        // Lessons changing teacher keep their period if the new teacher is free then; otherwise they move
+        List<ScheduleDTO> kept = current.values().stream()
+                .flatMap(List::stream)
+                .filter(lesson -> !newTeacher.containsKey(lesson.getId()))
+                .collect(Collectors.toList());
+        OccupancyGrid week = OccupancyGrid.of(layout, kept.stream()
+                .map(ScheduleService::toBookedLesson)
+                .collect(Collectors.toList()));
+        Set<Long> teacherIds = new HashSet<>(newTeacher.values());
+        teacherOf.values().stream().filter(Objects::nonNull).forEach(teacherIds::add);
+        Map<Long, Teacher> teachers = loadById(teacherRepository.findAllWithUserByIdIn(teacherIds), Teacher::getId);
+        teacherIds.forEach(id -> require(teachers, id, "Teacher"));
+        restrictTeachers(week, teachers.values());
+        Map<Long, Long> reassignedInPlace = new HashMap<>();
+        for (List<ScheduleDTO> lessons : current.values()) {
+            for (ScheduleDTO lesson : lessons) {
+                Long teacherId = newTeacher.get(lesson.getId());
+                if (teacherId == null) {
+                    continue;
+                }
+                int day = layout.dayIndex(lesson.getDayOfWeek());
+                long periods = layout.overlapMask(lesson.getStartTime(), lesson.getEndTime());
+                if (day >= 0 && canTeach(week, teacherId, day, periods)) {
+                    reassignedInPlace.put(lesson.getId(), teacherId);
+                    lesson.setTeacherId(teacherId);
+                    week.book(toBookedLesson(lesson));
+                } else {
+                    removed.add(lesson);
+                    missing.merge(new ClassSubject(lesson.getClassGroupId(), lesson.getSubjectId()), 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<Long, ClassGroup> classGroups = loadById(classGroupRepository.findAllById(missing.keySet().stream()
+                .map(ClassSubject::classGroupId)
+                .collect(Collectors.toSet())), ClassGroup::getId);
+        List<Room> rooms = roomRepository.findAllByOrderByCapacityAscNameAsc();
+        Map<Long, Long> classSizes = countStudents(classGroups.keySet());
+
+        List<LessonDemand> demands = new ArrayList<>();
+        missing.forEach((key, count) -> {
+            require(classGroups, key.classGroupId(), "ClassGroup");
+            Subject subject = subjects.get(key.subjectId());
+            List<String> candidateRooms = candidateRooms(rooms, subject,
+                    classSizes.getOrDefault(key.classGroupId(), 0L));
+            for (int i = 0; i < count; i++) {
+                demands.add(new LessonDemand(teacherOf.get(key), key.subjectId(), key.classGroupId(), candidateRooms,
+                        !rooms.isEmpty()));
+            }
+        });
+
+        TimetableProblem problem = new TimetableProblem(layout, week, demands);
+        TimetableSolution solution = solve(problem, request, SolverProgress.NONE);
+        GenerationPlan plan = new GenerationPlan(version.getId(), problem, teachers, subjects, classGroups);
+        diagnostics.addAll(describeUnplacedLessons(plan, solution));
+
+        if (!removed.isEmpty()) {
+            scheduleRepository.deleteAllByIdInBatch(removed.stream().map(ScheduleDTO::getId).collect(Collectors.toList()));
+        }
+        scheduleRepository.findAllById(reassignedInPlace.keySet())
+                .forEach(schedule -> schedule.setTeacher(teachers.get(reassignedInPlace.get(schedule.getId()))));
+        scheduleRepository.flush();
+
+        List<Schedule> placed = new ArrayList<>();
+        for (int i = 0; i < demands.size(); i++) {
+            if (solution.isPlaced(i)) {
+                placed.add(toSchedule(plan, version, demands.get(i), layout.dayOfCell(solution.cellOf(i)),
+                        layout.slotOfCell(solution.cellOf(i)), solution.roomOf(i)));
+            }
+        }
+        List<ScheduleDTO> placedLessons = scheduleRepository.saveAll(placed).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+
+        if (request.getVersionId() == null) {
+            timetableVersionService.activate(version.getId());
+        }
+        return ScheduleRepairResultDTO.builder()
+                .versionId(version.getId())
+                .activated(request.getVersionId() == null)
+                .lessonsKept(kept.size())
+                .lessonsReassigned(reassignedInPlace.size())
+                .lessonsRemoved(removed.size())
+                .lessonsUnplaced(solution.unplacedCount())
+                .placedLessons(placedLessons)
+                .diagnostics(diagnostics)
+                .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                .build();
+    }
+
+    public TimetableSolution solve(TimetableProblem problem, GenerateScheduleRequest request, SolverProgress progress) {
+        TimetableSolution greedy = greedySolver.solve(problem, progress);
+        if (request.getMode() != ScheduleGenerationMode.OPTIMIZED) {
+            return optimizer.evaluate(problem, greedy);
+        }
+
+        long budget = request.getTimeBudgetMillis() != null
+                ? Math.min(request.getTimeBudgetMillis(), maxTimeBudgetMillis)
+                : defaultTimeBudgetMillis;
+        return optimizer.optimize(problem, greedy, Duration.ofMillis(budget), progress);
+    }
+
+    /**
+     * Persists the placed lessons of a solution into the plan's draft. Without one, the lessons go into a
+     * new copy of the active timetable that is activated once saved, so nobody sees a partial result.
+     * The week is re-read first: a lesson whose period was booked by someone else since planning is
+     * skipped and reported in {@code diagnostics}.
+     */
+    @Transactional
+    public List<ScheduleDTO> saveGeneratedSchedules(GenerationPlan plan, TimetableSolution solution,
+            List<String> diagnostics) {
+        TimetableVersion version = plan.versionId() != null
+                ? timetableVersionService.requireDraft(plan.versionId())
+                : timetableVersionService.createDraft("Generated " + LocalDateTime.now().withNano(0),
+                        timetableVersionService.activeVersionId());
+        SlotLayout layout = plan.problem().layout();
+        List<LessonDemand> lessons = plan.problem().lessons();
+        OccupancyGrid current = OccupancyGrid.of(layout, scheduleRepository.findAllBookedLessons(version.getId()));
+
+        List<Schedule> generatedSchedules = new ArrayList<>();
+        for (int i = 0; i < lessons.size(); i++) {
+            if (!solution.isPlaced(i)) {
+                continue;
+            }
+            LessonDemand lesson = lessons.get(i);
+            int cell = solution.cellOf(i);
+            int day = layout.dayOfCell(cell);
+            int slot = layout.slotOfCell(cell);
+            String room = solution.roomOf(i);
+            ClassGroup classGroup = plan.classGroups().get(lesson.classGroupId());
+            Subject subject = plan.subjects().get(lesson.subjectId());
+
+            if (!current.isFree(lesson.teacherId(), lesson.classGroupId(), day, slot)
+                    || (room != null && !current.isRoomFree(room, day, slot))) {
+                diagnostics.add(String.format("%s %s on %s at %s was skipped: the period was booked during generation",
+                        classGroup.getName(), subject.getName(), layout.day(day), layout.startOf(slot)));
+                continue;
+            }
+            current.place(lesson.teacherId(), lesson.classGroupId(), room, day, slot);
+            generatedSchedules.add(toSchedule(plan, version, lesson, day, slot, room));
+        }
+
+        List<Schedule> saved = scheduleRepository.saveAll(generatedSchedules);
+        if (plan.versionId() == null) {
+            timetableVersionService.activate(version.getId());
+        }
+        return saved.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    /** One line per class and subject that did not get all of its weekly lessons. */
+    public List<String> describeUnplacedLessons(GenerationPlan plan, TimetableSolution solution) {
+        List<LessonDemand> lessons = plan.problem().lessons();
+        Map<LessonDemand, int[]> counts = new LinkedHashMap<>();
+        for (int i = 0; i < lessons.size(); i++) {
+            int[] count = counts.computeIfAbsent(lessons.get(i), lesson -> new int[2]);
+            count[0]++;
+            if (!solution.isPlaced(i)) {
+                count[1]++;
+            }
+        }
+
+        List<String> diagnostics = new ArrayList<>();
+        counts.forEach((lesson, count) -> {
+            if (count[1] > 0) {
+                Subject subject = plan.subjects().get(lesson.subjectId());
+                diagnostics.add(String.format("%s %s: %d of %d lessons could not be placed%s",
+                        plan.classGroups().get(lesson.classGroupId()).getName(), subject.getName(), count[1],
+                        count[0], lesson.needsRoom() && lesson.rooms().isEmpty()
+                                ? " (no " + roomTypeOf(subject) + " room seats the class)" : ""));
+            }
+        });
+        return diagnostics;
+    }
+
     @Transactional
     public void deleteSchedule(Long id) {
-        if (!scheduleRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Schedule", "id", id);
+        Schedule schedule = scheduleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule", "id", id));
+        TimetableVersion version = timetableVersionService.requireWritable(schedule.getVersion().getId());
+        scheduleRepository.delete(schedule);
+        if (timetableVersionService.isActive(version.getId())) {
+            eventPublisher.publishEvent(ScheduleChangedEvent.removed(toBookedLesson(schedule)));
         }
-        scheduleRepository.deleteById(id);
     }
 
-    private void validateNoConflicts(Long teacherId, Long classGroupId, DayOfWeek day,
-            LocalTime startTime, LocalTime endTime, Long excludeId) {
-        List<Schedule> teacherConflicts = scheduleRepository.findConflictingTeacherSchedules(
-                teacherId, day, startTime, endTime);
+    /**
+     * Availability is checked against the teacher's bitmask; the daily limit against the schedule index,
+     * so only for the active timetable (drafts are limited when they are generated).
+     */
+    private void validateTeacherAvailability(Teacher teacher, DayOfWeek day, LocalTime startTime, LocalTime endTime,
+            boolean live) {
+        if (!TeacherAvailability.isAvailable(teacher.getUnavailableBlocks(), day, startTime, endTime)) {
+            throw new IllegalArgumentException("Teacher is not available at this time");
+        }
+        if (live && teacher.getMaxLessonsPerDay() != null && scheduleIndexService.isReady()
+                && scheduleIndexService.countLessons(ScheduleIntervalIndex.Resource.TEACHER, teacher.getId(), day)
+                        >= teacher.getMaxLessonsPerDay()) {
+            throw new IllegalArgumentException("Teacher already has the maximum number of lessons on this day");
+        }
+    }
 
-        if (excludeId != null) {
-            teacherConflicts = teacherConflicts.stream()
-                    .filter(s -> !s.getId().equals(excludeId))
-                    .collect(Collectors.toList());
+    /** Once there is a room inventory, lessons can only be held in its rooms. */
+    private void validateRoom(String room) {
+        if (room != null && !roomRepository.existsByName(room) && roomRepository.count() > 0) {
+            throw new IllegalArgumentException("Room " + room + " is not in the room inventory");
         }
+    }
 
-        if (!teacherConflicts.isEmpty()) {
+    /**
+     * Fast pre-check for a friendly error message. The exclusion constraints on the schedules table are
+     * what actually prevents double-booking, including between concurrent requests.
+     */
+    private void validateNoConflicts(Long teacherId, Long classGroupId, String room, DayOfWeek day,
+            LocalTime startTime, LocalTime endTime, Long excludeId) {
+        if (!scheduleIndexService.isReady()) {
+            return;
+        }
+        if (scheduleIndexService.findOverlap(ScheduleIntervalIndex.Resource.TEACHER, teacherId, day,
+                startTime, endTime, excludeId) != null) {
             throw new IllegalArgumentException("Teacher has a conflicting schedule at this time");
         }
+        if (scheduleIndexService.findOverlap(ScheduleIntervalIndex.Resource.CLASS_GROUP, classGroupId, day,
+                startTime, endTime, excludeId) != null) {
+            throw new IllegalArgumentException("Class has a conflicting schedule at this time");
+        }
+        if (room != null && scheduleIndexService.findOverlap(ScheduleIntervalIndex.Resource.ROOM, room, day,
+                startTime, endTime, excludeId) != null) {
+            throw new IllegalArgumentException("Room is already booked at this time");
+        }
+    }
 
-        List<Schedule> classConflicts = scheduleRepository.findConflictingClassSchedules(
-                classGroupId, day, startTime, endTime);
+    /**
+     * Rooms of the subject's type that seat the whole class, smallest first so big rooms stay free for
+     * big classes. Without a room inventory lessons are generated without rooms, as before; with one, a
+     * lesson that no room fits gets no candidates and is left unplaced.
+     */
+    private static List<String> candidateRooms(List<Room> rooms, Subject subject, long classSize) {
+        RoomType type = roomTypeOf(subject);
+        return rooms.stream()
+                .filter(room -> room.getType() == type && room.getCapacity() >= classSize)
+                .map(Room::getName)
+                .collect(Collectors.toList());
+    }
 
-        if (excludeId != null) {
-            classConflicts = classConflicts.stream()
-                    .filter(s -> !s.getId().equals(excludeId))
-                    .collect(Collectors.toList());
-        }
+    private static RoomType roomTypeOf(Subject subject) {
+        return subject.getRequiredRoomType() != null ? subject.getRequiredRoomType() : RoomType.CLASSROOM;
+    }
 
-        if (!classConflicts.isEmpty()) {
-            throw new IllegalArgumentException("Class has a conflicting schedule at this time");
+    private static Schedule toSchedule(GenerationPlan plan, TimetableVersion version, LessonDemand lesson, int day,
+            int slot, String room) {
+        SlotLayout layout = plan.problem().layout();
+        return Schedule.builder()
+                .version(version)
+                .classGroup(plan.classGroups().get(lesson.classGroupId()))
+                .teacher(plan.teachers().get(lesson.teacherId()))
+                .subject(plan.subjects().get(lesson.subjectId()))
+                .dayOfWeek(layout.day(day))
+                .startTime(layout.startOf(slot))
+                .endTime(layout.endOf(slot))
+                .room(room)
+                .lessonNumber(slot + 1)
+                .build();
+    }
+
+    private static void restrictTeachers(OccupancyGrid grid, Collection<Teacher> teachers) {
+        teachers.forEach(teacher -> grid.restrictTeacher(teacher.getId(), teacher.getUnavailableBlocks(),
+                teacher.getMaxLessonsPerDay()));
+    }
+
+    /** Whether the teacher is free, available and under their daily limit in all of {@code periods}. */
+    private static boolean canTeach(OccupancyGrid grid, Long teacherId, int day, long periods) {
+        long busy = grid.teacherMask(teacherId, day);
+        return ((busy | grid.teacherBlockedMask(teacherId, day)) & periods) == 0
+                && Long.bitCount(busy) + Long.bitCount(periods) <= grid.teacherDailyLimit(teacherId);
+    }
+
+    private static SlotLayout layoutOf(GenerateScheduleRequest request) {
+        LocalTime dayStart = request.getDayStartTime() != null ? request.getDayStartTime() : LocalTime.of(8, 0);
+        LocalTime dayEnd = request.getDayEndTime() != null ? request.getDayEndTime() : LocalTime.of(15, 0);
+        int lessonDuration = request.getLessonDurationMinutes() != null ? request.getLessonDurationMinutes() : 45;
+        int breakDuration = request.getBreakDurationMinutes() != null ? request.getBreakDurationMinutes() : 15;
+        return new SlotLayout(dayStart, dayEnd, lessonDuration, breakDuration);
+    }
+
+    /**
+     * The {@code count} lessons to drop when a class gets fewer hours of a subject: lessons that change
+     * teacher anyway first, then those on days with the subject more than once, then the latest in the week.
+     */
+    private static List<ScheduleDTO> surplusLessons(List<ScheduleDTO> lessons, int count, Set<Long> changingTeacher) {
+        Map<DayOfWeek, Long> perDay = lessons.stream()
+                .collect(Collectors.groupingBy(ScheduleDTO::getDayOfWeek, Collectors.counting()));
+        return lessons.stream()
+                .sorted(Comparator.comparing((ScheduleDTO lesson) -> !changingTeacher.contains(lesson.getId()))
+                        .thenComparing(lesson -> -perDay.get(lesson.getDayOfWeek()))
+                        .thenComparing(ScheduleDTO::getDayOfWeek, Comparator.reverseOrder())
+                        .thenComparing(ScheduleDTO::getStartTime, Comparator.reverseOrder()))
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Long> countStudents(Set<Long> classGroupIds) {
+        return studentRepository.countByClassGroupIds(classGroupIds).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+
+    private static BookedLesson toBookedLesson(ScheduleDTO lesson) {
+        return new BookedLesson(lesson.getId(), lesson.getTeacherId(), lesson.getClassGroupId(), lesson.getRoom(),
+                lesson.getDayOfWeek(), lesson.getStartTime(), lesson.getEndTime());
+    }
+
+    private static BookedLesson toBookedLesson(Schedule schedule) {
+        return new BookedLesson(schedule.getId(), schedule.getTeacher().getId(), schedule.getClassGroup().getId(),
+                schedule.getRoom(), schedule.getDayOfWeek(), schedule.getStartTime(), schedule.getEndTime());
+    }
+
+    private Map<Long, Teacher> loadTeachers(List<GenerateScheduleRequest.TeacherSubjectMapping> mappings) {
+        Set<Long> ids = mappings.stream()
+                .map(GenerateScheduleRequest.TeacherSubjectMapping::getTeacherId)
+                .collect(Collectors.toSet());
+        return loadById(teacherRepository.findAllWithUserByIdIn(ids), Teacher::getId);
+    }
+
+    private static Set<Long> mappedIds(List<GenerateScheduleRequest.TeacherSubjectMapping> mappings,
+            Function<GenerateScheduleRequest.TeacherSubjectMapping, Long> idGetter) {
+        return mappings.stream().map(idGetter).collect(Collectors.toSet());
+    }
+
+    private static <T> Map<Long, T> loadById(List<T> entities, Function<T, Long> idGetter) {
+        return entities.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    private static <T> T require(Map<Long, T> entities, Long id, String resourceName) {
+        T entity = entities.get(id);
+        if (entity == null) {
+            throw new ResourceNotFoundException(resourceName, "id", id);
         }
+        return entity;
+    }
+
+    private record ClassSubject(Long classGroupId, Long subjectId) {
+    }
+
+    /** {@code versionId} is the draft to generate into, or {@code null} for a new, auto-activated one. */
+    public record GenerationPlan(Long versionId, TimetableProblem problem, Map<Long, Teacher> teachers, Map<Long, Subject> subjects,
+            Map<Long, ClassGroup> classGroups) {
     }
 
     private ScheduleDTO mapToDTO(Schedule schedule) {
@@ -0,0 +1,143 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.dto.SubstituteSuggestionDTO;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.repository.ScheduleRepository;
+import com.edu.edupage.repository.TeacherRepository;
+import com.edu.edupage.scheduling.ScheduleChangedEvent;
+import com.edu.edupage.scheduling.TeacherAvailability;
+import com.edu.edupage.scheduling.TeacherOccupancyIndex;
+import com.edu.edupage.scheduling.TimetableActivatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests substitutes for an absent teacher's lessons: teachers qualified for the subject (teacher_subjects)
+ * who are free at that time according to the {@link TeacherOccupancyIndex} of the active timetable, available
+ * according to {@link TeacherAvailability} and below their daily lesson limit. Teachers who are at school that
+ * day anyway, and especially right before or after the lesson, come first; ties go to the lighter load. The
+ * index is kept current from schedule events; qualifications and availability are read per request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubstituteTeacherService {
+
+    // A lesson this close to the substitute's own counts as adjacent: no extra free period in their day
+    private static final int ADJACENT_MINUTES = 15;
+
+    private static final Comparator<SubstituteSuggestionDTO.Candidate> RANKING = Comparator
+            .comparing(SubstituteSuggestionDTO.Candidate::isAdjacentLesson).reversed()
+            .thenComparing(Comparator.comparing(SubstituteSuggestionDTO.Candidate::isTeachingThatDay).reversed())
+            .thenComparingInt(SubstituteSuggestionDTO.Candidate::getLessonsThatDay)
+            .thenComparingInt(SubstituteSuggestionDTO.Candidate::getLessonsPerWeek)
+            .thenComparing(SubstituteSuggestionDTO.Candidate::getTeacherName);
+
+    private final ScheduleRepository scheduleRepository;
+    private final TeacherRepository teacherRepository;
+    private final TimetableVersionService timetableVersionService;
+    private final TeacherOccupancyIndex index = new TeacherOccupancyIndex();
+
+    private record QualifiedTeacher(String name, long[] unavailableBlocks, Integer maxLessonsPerDay) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        long started = System.currentTimeMillis();
+        index.replaceAll(scheduleRepository.findAllBookedLessons(timetableVersionService.activeVersionId()));
+        log.info("Teacher occupancy index built in {} ms", System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onScheduleChanged(ScheduleChangedEvent event) {
+        event.removed().forEach(lesson -> index.remove(lesson.id()));
+        event.added().forEach(index::add);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTimetableActivated(TimetableActivatedEvent event) {
+        index.replaceAll(scheduleRepository.findAllBookedLessons(event.versionId()));
+    }
+
+    /** Candidates for every lesson the teacher has on that day of the active timetable. */
+    public List<SubstituteSuggestionDTO> findSubstitutes(Long teacherId, DayOfWeek day, int limit) {
+        List<ScheduleDTO> lessons = scheduleRepository.findWeeklyScheduleDTOsByTeacher(
+                timetableVersionService.activeVersionId(), teacherId).stream()
+                .filter(lesson -> lesson.getDayOfWeek() == day)
+                .collect(Collectors.toList());
+        return suggest(lessons, limit);
+    }
+
+    /** Candidates for one lesson of the active timetable; lessons of drafts and archived versions are rejected. */
+    public SubstituteSuggestionDTO findSubstitutes(Long scheduleId, int limit) {
+        ScheduleDTO lesson = scheduleRepository.findScheduleDTOById(timetableVersionService.activeVersionId(),
+                scheduleId).orElseThrow(() -> scheduleRepository.existsById(scheduleId)
+                        ? new IllegalArgumentException("Lesson " + scheduleId + " is not in the active timetable")
+                        : new ResourceNotFoundException("Schedule", "id", scheduleId));
+        return suggest(List.of(lesson), limit).get(0);
+    }
+
+    private List<SubstituteSuggestionDTO> suggest(List<ScheduleDTO> lessons, int limit) {
+        if (lessons.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Map<Long, QualifiedTeacher>> qualified = qualifiedTeachers(lessons.stream()
+                .map(ScheduleDTO::getSubjectId)
+                .collect(Collectors.toSet()));
+
+        List<SubstituteSuggestionDTO> suggestions = new ArrayList<>();
+        for (ScheduleDTO lesson : lessons) {
+            List<SubstituteSuggestionDTO.Candidate> candidates = new ArrayList<>();
+            qualified.getOrDefault(lesson.getSubjectId(), Map.of()).forEach((teacherId, teacher) -> {
+                if (teacherId.equals(lesson.getTeacherId())
+                        || !index.isFree(teacherId, lesson.getDayOfWeek(), lesson.getStartTime(), lesson.getEndTime())
+                        || !TeacherAvailability.isAvailable(teacher.unavailableBlocks(), lesson.getDayOfWeek(),
+                                lesson.getStartTime(), lesson.getEndTime())) {
+                    return;
+                }
+                int lessonsThatDay = index.lessonsOn(teacherId, lesson.getDayOfWeek());
+                if (teacher.maxLessonsPerDay() != null && lessonsThatDay >= teacher.maxLessonsPerDay()) {
+                    return;
+                }
+                candidates.add(SubstituteSuggestionDTO.Candidate.builder()
+                        .teacherId(teacherId)
+                        .teacherName(teacher.name())
+                        .teachingThatDay(lessonsThatDay > 0)
+                        .adjacentLesson(index.isBusyAround(teacherId, lesson.getDayOfWeek(), lesson.getStartTime(),
+                                lesson.getEndTime(), ADJACENT_MINUTES))
+                        .lessonsThatDay(lessonsThatDay)
+                        .lessonsPerWeek(index.lessonsPerWeek(teacherId))
+                        .build());
+            });
+            candidates.sort(RANKING);
+            suggestions.add(SubstituteSuggestionDTO.builder()
+                    .lesson(lesson)
+                    .candidates(candidates.size() > limit ? List.copyOf(candidates.subList(0, limit)) : candidates)
+                    .build());
+        }
+        return suggestions;
+    }
+
+    private Map<Long, Map<Long, QualifiedTeacher>> qualifiedTeachers(Collection<Long> subjectIds) {
+        Map<Long, Map<Long, QualifiedTeacher>> bySubject = new HashMap<>();
+        for (Object[] row : teacherRepository.findQualifiedTeachers(subjectIds)) {
+            bySubject.computeIfAbsent((Long) row[0], id -> new HashMap<>()).put((Long) row[1],
+                    new QualifiedTeacher((String) row[2], (long[]) row[3], (Integer) row[4]));
+        }
+        return bySubject;
+    }
+}
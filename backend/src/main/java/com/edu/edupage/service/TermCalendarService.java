@@ -0,0 +1,167 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.CalendarExceptionDTO;
+import com.edu.edupage.dto.CreateCalendarExceptionRequest;
+import com.edu.edupage.dto.CreateTermRequest;
+import com.edu.edupage.dto.TermDTO;
+import com.edu.edupage.entity.CalendarException;
+import com.edu.edupage.entity.Term;
+import com.edu.edupage.enums.CalendarExceptionType;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.repository.AttendanceCounterRepository;
+import com.edu.edupage.repository.CalendarExceptionRepository;
+import com.edu.edupage.repository.TermRepository;
+import com.edu.edupage.scheduling.TermCalendar;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Terms, holidays and swapped days. Readers get an in-memory {@link TermCalendar} snapshot that is
+ * reloaded lazily after each committed change.
+ */
+@Service
+@RequiredArgsConstructor
+public class TermCalendarService {
+
+    private final TermRepository termRepository;
+    private final CalendarExceptionRepository calendarExceptionRepository;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile TermCalendar calendar;
+
+    public TermCalendar calendar() {
+        TermCalendar current = calendar;
+        if (current != null && current.version() == version.get()) {
+            return current;
+        }
+        long loadedVersion = version.get();
+        Map<LocalDate, DayOfWeek> exceptions = new HashMap<>();
+        calendarExceptionRepository.findAll().forEach(exception -> exceptions.put(exception.getDate(),
+                exception.getType() == CalendarExceptionType.SWAPPED_DAY ? exception.getFollowsDayOfWeek() : null));
+        current = new TermCalendar(loadedVersion, termRepository.findAllByOrderByStartDateAsc().stream()
+                .map(term -> new TermCalendar.TermRange(term.getId(), term.getName(), term.getStartDate(),
+                        term.getEndDate()))
+                .collect(Collectors.toList()), Collections.unmodifiableMap(exceptions));
+        // A change committed while loading bumps the version, so this snapshot is reloaded on next use
+        calendar = current;
+        return current;
+    }
+
+    public List<TermDTO> getTerms() {
+        return termRepository.findAllByOrderByStartDateAsc().stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public TermDTO createTerm(CreateTermRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("Term must not end before it starts");
+        }
+        if (termRepository.existsOverlapping(request.getStartDate(), request.getEndDate())) {
+            throw new IllegalArgumentException("Term overlaps an existing term");
+        }
+        Term term = termRepository.saveAndFlush(Term.builder()
+                .name(request.getName())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .build());
+        recountAttendance();
+        invalidateAfterCommit();
+        return mapToDTO(term);
+    }
+
+    @Transactional
+    public void deleteTerm(Long id) {
+        Term term = termRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Term", "id", id));
+        termRepository.delete(term);
+        termRepository.flush();
+        recountAttendance();
+        invalidateAfterCommit();
+    }
+
+    public List<CalendarExceptionDTO> getExceptions() {
+        return calendarExceptionRepository.findAllByOrderByDateAsc().stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public CalendarExceptionDTO createException(CreateCalendarExceptionRequest request) {
+        boolean swapped = request.getType() == CalendarExceptionType.SWAPPED_DAY;
+        if (swapped != (request.getFollowsDayOfWeek() != null)) {
+            throw new IllegalArgumentException("followsDayOfWeek is required for swapped days and only for them");
+        }
+        if (calendarExceptionRepository.existsByDate(request.getDate())) {
+            throw new IllegalArgumentException("There is already a calendar exception on " + request.getDate());
+        }
+        CalendarException exception = calendarExceptionRepository.save(CalendarException.builder()
+                .date(request.getDate())
+                .type(request.getType())
+                .followsDayOfWeek(request.getFollowsDayOfWeek())
+                .description(request.getDescription())
+                .build());
+        invalidateAfterCommit();
+        return mapToDTO(exception);
+    }
+
+    @Transactional
+    public void deleteException(Long id) {
+        CalendarException exception = calendarExceptionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("CalendarException", "id", id));
+        calendarExceptionRepository.delete(exception);
+        invalidateAfterCommit();
+    }
+
+    /** Attendance counters are per term, so records may change term when terms do. */
+    private void recountAttendance() {
+        attendanceCounterRepository.deleteAllCounters();
+        attendanceCounterRepository.countFromAttendance();
+    }
+
+    private void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    private TermDTO mapToDTO(Term term) {
+        return TermDTO.builder()
+                .id(term.getId())
+                .name(term.getName())
+                .startDate(term.getStartDate())
+                .endDate(term.getEndDate())
+                .build();
+    }
+
+    private CalendarExceptionDTO mapToDTO(CalendarException exception) {
+        return CalendarExceptionDTO.builder()
+                .id(exception.getId())
+                .date(exception.getDate())
+                .type(exception.getType())
+                .followsDayOfWeek(exception.getFollowsDayOfWeek())
+                .description(exception.getDescription())
+                .build();
+    }
+}
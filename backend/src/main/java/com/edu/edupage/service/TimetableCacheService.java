@@ -0,0 +1,179 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.entity.Student;
+import com.edu.edupage.entity.User;
+import com.edu.edupage.repository.StudentRepository;
+import com.edu.edupage.repository.TeacherRepository;
+import com.edu.edupage.scheduling.BookedLesson;
+import com.edu.edupage.scheduling.ScheduleChangedEvent;
+import com.edu.edupage.scheduling.TimetableActivatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Weekly timetables per class and per teacher, each with a version that increases whenever one of its
+ * lessons is created or deleted (after commit, via {@link ScheduleChangedEvent}) or a class in it is renamed.
+ * The version is the ETag, so an unchanged timetable can be answered with 304 before anything is loaded.
+ * Only reflects changes made through this application instance.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimetableCacheService {
+
+    private final ScheduleService scheduleService;
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+
+    // Starts at the boot time so versions, and with them ETags, never repeat across restarts
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private volatile long baseVersion = clock.get();
+    private final Map<TimetableKey, Long> versions = new ConcurrentHashMap<>();
+    private final Map<TimetableKey, Timetable> timetables = new ConcurrentHashMap<>();
+    private final Map<Long, TimetableKey> userTimetables = new ConcurrentHashMap<>();
+
+    public enum Scope {
+        CLASS_GROUP, TEACHER, ALL
+    }
+
+    public record TimetableKey(Scope scope, Long id) {
+
+        public static TimetableKey classGroup(Long classGroupId) {
+            return new TimetableKey(Scope.CLASS_GROUP, classGroupId);
+        }
+
+        public static TimetableKey teacher(Long teacherId) {
+            return new TimetableKey(Scope.TEACHER, teacherId);
+        }
+
+        public static TimetableKey all() {
+            return new TimetableKey(Scope.ALL, null);
+        }
+    }
+
+    public record Timetable(long version, String eTag, List<ScheduleDTO> lessons) {
+    }
+
+    /** The timetable a user sees as "my week": their class, their own lessons, or everything for admins. */
+    public TimetableKey keyFor(User user) {
+        TimetableKey key = userTimetables.get(user.getId());
+        if (key != null) {
+            return key;
+        }
+        key = switch (user.getRole()) {
+            case STUDENT -> {
+                Student student = studentRepository.findByUserId(user.getId())
+                        .orElseThrow(() -> new IllegalStateException("Student profile not found"));
+                if (student.getClassGroup() == null) {
+                    throw new IllegalStateException("Student is not assigned to a class");
+                }
+                yield TimetableKey.classGroup(student.getClassGroup().getId());
+            }
+            case TEACHER -> TimetableKey.teacher(teacherRepository.findByUserId(user.getId())
+                    .orElseThrow(() -> new IllegalStateException("Teacher profile not found"))
+                    .getId());
+            case ADMIN -> TimetableKey.all();
+            default -> throw new IllegalStateException("Unknown role");
+        };
+        userTimetables.put(user.getId(), key);
+        return key;
+    }
+
+    public String eTag(TimetableKey key) {
+        return eTag(key, versionOf(key));
+    }
+
+    public Timetable get(TimetableKey key) {
+        long version = versionOf(key);
+        Timetable cached = timetables.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        Timetable loaded = new Timetable(version, eTag(key, version), List.copyOf(load(key)));
+        // A change committed while loading leaves this entry behind the current version, so it is reloaded
+        timetables.put(key, loaded);
+        return loaded;
+    }
+
+    /** Call when students move between classes; the change is applied once the current transaction commits. */
+    public void evictUserTimetables() {
+        afterCommit(userTimetables::clear);
+    }
+
+    /**
+     * Call when a class is renamed: its timetable, those of its teachers and the whole school's get a new
+     * version once the current transaction commits, as they all show the class name.
+     */
+    public void classGroupRenamed(Long classGroupId) {
+        afterCommit(() -> {
+            TimetableKey classGroup = TimetableKey.classGroup(classGroupId);
+            Set<Long> teacherIds = load(classGroup).stream().map(ScheduleDTO::getTeacherId).collect(Collectors.toSet());
+            long version = clock.incrementAndGet();
+            versions.put(classGroup, version);
+            teacherIds.forEach(teacherId -> versions.put(TimetableKey.teacher(teacherId), version));
+            versions.put(TimetableKey.all(), version);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        long version = clock.incrementAndGet();
+        Stream.concat(event.added().stream(), event.removed().stream()).forEach(lesson -> bump(lesson, version));
+        versions.put(TimetableKey.all(), version);
+    }
+
+    /** A different version went live: every timetable gets a new version. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimetableActivated(TimetableActivatedEvent event) {
+        baseVersion = clock.incrementAndGet();
+        versions.clear();
+        timetables.clear();
+    }
+
+    private void bump(BookedLesson lesson, long version) {
+        versions.put(TimetableKey.classGroup(lesson.classGroupId()), version);
+        versions.put(TimetableKey.teacher(lesson.teacherId()), version);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private long versionOf(TimetableKey key) {
+        return versions.getOrDefault(key, baseVersion);
+    }
+
+    private List<ScheduleDTO> load(TimetableKey key) {
+        return switch (key.scope()) {
+            case CLASS_GROUP -> scheduleService.getWeeklyScheduleForClass(key.id());
+            case TEACHER -> scheduleService.getWeeklyScheduleForTeacher(key.id());
+            case ALL -> scheduleService.getAllSchedules();
+        };
+    }
+
+    private static String eTag(TimetableKey key, long version) {
+        String owner = key.id() != null ? key.scope().name().toLowerCase() + "-" + key.id() : key.scope().name().toLowerCase();
+        return "\"" + owner + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,209 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.ScheduleDTO;
+import com.edu.edupage.scheduling.TermCalendar;
+import com.edu.edupage.security.HmacKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * iCalendar (RFC 5545) feeds of class and teacher timetables: one weekly recurring event per lesson and
+ * term, with holidays as EXDATEs and swapped days as RDATEs. Times are floating (local school time).
+ * Calendar clients cannot send a bearer token, so feed URLs carry an HMAC of the timetable key instead;
+ * changing {@code app.calendar.feed-secret} revokes every feed URL without ending any session.
+ */
+@Service
+public class TimetableFeedService {
+
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final TimetableCacheService timetableCacheService;
+    private final TermCalendarService termCalendarService;
+    private final SecretKeySpec feedKey;
+
+    public record Feed(String name, List<ScheduleDTO> lessons, TermCalendar calendar) {
+    }
+
+    public TimetableFeedService(TimetableCacheService timetableCacheService, TermCalendarService termCalendarService,
+            @Value("${app.calendar.feed-secret}") String secret) {
+        this.timetableCacheService = timetableCacheService;
+        this.termCalendarService = termCalendarService;
+        this.feedKey = HmacKeys.derive(secret, "calendar-feed");
+    }
+
+    public String token(TimetableCacheService.TimetableKey key) {
+        try {
+            Mac mac = Mac.getInstance(HmacKeys.ALGORITHM);
+            mac.init(feedKey);
+            byte[] digest = mac.doFinal((key.scope() + ":" + key.id()).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    public boolean isValidToken(TimetableCacheService.TimetableKey key, String token) {
+        return token != null && MessageDigest.isEqual(token(key).getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Changes whenever the timetable or the calendar does; cheap enough to answer polls with 304. */
+    public String eTag(TimetableCacheService.TimetableKey key) {
+        String timetable = timetableCacheService.eTag(key);
+        return "\"ics-" + timetable.substring(1, timetable.length() - 1) + "-"
+                + termCalendarService.calendar().version() + "\"";
+    }
+
+    /** Snapshot of everything the feed is rendered from, taken before the response starts streaming. */
+    public Feed feed(TimetableCacheService.TimetableKey key) {
+        TermCalendar calendar = termCalendarService.calendar();
+        List<ScheduleDTO> lessons = timetableCacheService.get(key).lessons();
+        String name;
+        if (key.scope() == TimetableCacheService.Scope.TEACHER) {
+            name = lessons.isEmpty() ? "Teacher " + key.id() : lessons.get(0).getTeacherName();
+        } else {
+            name = lessons.isEmpty() ? "Class " + key.id() : lessons.get(0).getClassGroupName();
+        }
+        return new Feed(name, lessons, calendar);
+    }
+
+    public void write(Feed feed, Writer out) throws IOException {
+        String stamp = UTC.format(Instant.now());
+        line(out, "BEGIN:VCALENDAR");
+        line(out, "VERSION:2.0");
+        line(out, "PRODID:-//EduPage//Timetable//EN");
+        line(out, "CALSCALE:GREGORIAN");
+        line(out, "METHOD:PUBLISH");
+        line(out, "X-WR-CALNAME:" + escape(feed.name()));
+        for (ScheduleDTO lesson : feed.lessons()) {
+            if (feed.calendar().terms().isEmpty()) {
+                // No terms configured: open-ended weekly recurrence from this week
+                LocalDate first = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                        .with(TemporalAdjusters.nextOrSame(lesson.getDayOfWeek()));
+                writeEvent(out, lesson, "lesson-" + lesson.getId(), stamp, first, true, null, List.of(), List.of());
+                continue;
+            }
+            for (TermCalendar.TermRange term : feed.calendar().terms()) {
+                writeTermEvent(out, lesson, term, feed.calendar(), stamp);
+            }
+        }
+        line(out, "END:VCALENDAR");
+        out.flush();
+    }
+
+    private void writeTermEvent(Writer out, ScheduleDTO lesson, TermCalendar.TermRange term, TermCalendar calendar,
+            String stamp) throws IOException {
+        DayOfWeek day = lesson.getDayOfWeek();
+        List<LocalDate> excluded = new ArrayList<>();
+        List<LocalDate> added = new ArrayList<>();
+        for (Map.Entry<LocalDate, DayOfWeek> exception : calendar.exceptions().entrySet()) {
+            LocalDate date = exception.getKey();
+            if (!term.contains(date)) {
+                continue;
+            }
+            if (date.getDayOfWeek() == day && exception.getValue() != day) {
+                excluded.add(date);
+            } else if (date.getDayOfWeek() != day && exception.getValue() == day) {
+                added.add(date);
+            }
+        }
+        excluded.sort(null);
+        added.sort(null);
+
+        LocalDate first = term.startDate().with(TemporalAdjusters.nextOrSame(day));
+        String uid = "lesson-" + lesson.getId() + "-term-" + term.id();
+        if (!first.isAfter(term.endDate())) {
+            writeEvent(out, lesson, uid, stamp, first, true, term.endDate(), excluded, added);
+        } else if (!added.isEmpty()) {
+            // Only swapped days of this weekday fall in the term
+            writeEvent(out, lesson, uid, stamp, added.get(0), false, null, List.of(), added.subList(1, added.size()));
+        }
+    }
+
+    /** One VEVENT starting on {@code first}, recurring weekly (until {@code until}, if given) when {@code weekly}. */
+    private void writeEvent(Writer out, ScheduleDTO lesson, String uid, String stamp, LocalDate first, boolean weekly,
+            LocalDate until, List<LocalDate> excluded, List<LocalDate> added) throws IOException {
+        LocalTime start = lesson.getStartTime();
+        line(out, "BEGIN:VEVENT");
+        line(out, "UID:" + uid + "@edupage");
+        line(out, "DTSTAMP:" + stamp);
+        line(out, "DTSTART:" + LOCAL.format(first.atTime(start)));
+        line(out, "DTEND:" + LOCAL.format(first.atTime(lesson.getEndTime())));
+        if (weekly) {
+            line(out, until != null
+                    ? "RRULE:FREQ=WEEKLY;UNTIL=" + LOCAL.format(until.atTime(LocalTime.MAX).withNano(0))
+                    : "RRULE:FREQ=WEEKLY");
+        }
+        if (!excluded.isEmpty()) {
+            line(out, "EXDATE:" + dates(excluded, start));
+        }
+        if (!added.isEmpty()) {
+            line(out, "RDATE:" + dates(added, start));
+        }
+        line(out, "SUMMARY:" + escape(lesson.getSubjectName() + " - " + lesson.getClassGroupName()));
+        if (lesson.getRoom() != null) {
+            line(out, "LOCATION:" + escape(lesson.getRoom()));
+        }
+        line(out, "DESCRIPTION:" + escape(lesson.getTeacherName()));
+        line(out, "END:VEVENT");
+    }
+
+    private static String dates(List<LocalDate> dates, LocalTime time) {
+        StringBuilder value = new StringBuilder();
+        for (LocalDate date : dates) {
+            if (!value.isEmpty()) {
+                value.append(',');
+            }
+            value.append(LOCAL.format(LocalDateTime.of(date, time)));
+        }
+        return value.toString();
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    /** Writes a content line, folded at 75 octets as RFC 5545 requires. */
+    private static void line(Writer out, String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > MAX_LINE_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            int chars = Character.charCount(codePoint);
+            out.write(content, i, chars);
+            octets += size;
+            i += chars;
+        }
+        out.write("\r\n");
+    }
+}
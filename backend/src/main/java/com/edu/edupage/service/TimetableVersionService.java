@@ -0,0 +1,270 @@
+package com.edu.edupage.service;
+
+import com.edu.edupage.dto.CreateTimetableVersionRequest;
+import com.edu.edupage.dto.TimetableValidationDTO;
+import com.edu.edupage.dto.TimetableVersionDTO;
+import com.edu.edupage.entity.Room;
+import com.edu.edupage.entity.TimetableVersion;
+import com.edu.edupage.enums.TimetableVersionStatus;
+import com.edu.edupage.exception.ResourceNotFoundException;
+import com.edu.edupage.repository.RoomRepository;
+import com.edu.edupage.repository.ScheduleRepository;
+import com.edu.edupage.repository.TimetableVersionRepository;
+import com.edu.edupage.scheduling.BookedLesson;
+import com.edu.edupage.scheduling.ScheduleIntervalIndex;
+import com.edu.edupage.scheduling.TimetableActivatedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Timetable versions: drafts are filled and validated without affecting anyone, then activated by
+ * archiving the current version and activating the draft in one transaction. The active version id is
+ * cached here and swapped after commit, so read paths never look it up. Only reflects activations made
+ * through this application instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimetableVersionService {
+
+    private final TimetableVersionRepository versionRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Long activeVersionId;
+
+    @PostConstruct
+    public void loadActiveVersion() {
+        TimetableVersion active = versionRepository.findByStatus(TimetableVersionStatus.ACTIVE)
+                .orElseGet(() -> versionRepository.save(TimetableVersion.builder()
+                        .name("Initial timetable")
+                        .status(TimetableVersionStatus.ACTIVE)
+                        .activatedAt(LocalDateTime.now())
+                        .build()));
+        activeVersionId = active.getId();
+    }
+
+    /**
+     * Lessons that predate versions or were inserted directly (seeders, bulk loads) join the active
+     * version. Runs before the schedule index is warmed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void adoptUnversionedLessons() {
+        int adopted = scheduleRepository.adoptUnversionedLessons(activeVersionId);
+        if (adopted > 0) {
+            log.info("Added {} unversioned lessons to timetable version {}", adopted, activeVersionId);
+        }
+    }
+
+    public Long activeVersionId() {
+        return activeVersionId;
+    }
+
+    public boolean isActive(Long versionId) {
+        return versionId.equals(activeVersionId);
+    }
+
+    public List<TimetableVersionDTO> getVersions() {
+        Map<Long, Long> lessonCounts = lessonCounts();
+        return versionRepository.findAllByOrderByIdDesc().stream()
+                .map(version -> mapToDTO(version, lessonCounts.getOrDefault(version.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    public TimetableVersionDTO getVersion(Long id) {
+        return mapToDTO(require(id), lessonCounts().getOrDefault(id, 0L));
+    }
+
+    @Transactional
+    public TimetableVersionDTO createDraft(CreateTimetableVersionRequest request) {
+        Long sourceId = null;
+        if (!request.isEmpty()) {
+            sourceId = request.getCopyFromVersionId() != null
+                    ? require(request.getCopyFromVersionId()).getId()
+                    : activeVersionId;
+        }
+        String name = request.getName() != null && !request.getName().isBlank()
+                ? request.getName()
+                : "Draft " + LocalDateTime.now().withNano(0);
+        return getVersion(createDraft(name, sourceId).getId());
+    }
+
+    /** New draft holding a copy of the lessons of {@code sourceVersionId}, or no lessons if it is null. */
+    @Transactional
+    public TimetableVersion createDraft(String name, Long sourceVersionId) {
+        TimetableVersion draft = versionRepository.save(TimetableVersion.builder()
+                .name(name)
+                .status(TimetableVersionStatus.DRAFT)
+                .basedOnVersionId(sourceVersionId)
+                .build());
+        if (sourceVersionId != null) {
+            scheduleRepository.copyLessons(sourceVersionId, draft.getId());
+        }
+        return draft;
+    }
+
+    public TimetableVersion requireDraft(Long id) {
+        TimetableVersion version = require(id);
+        if (version.getStatus() != TimetableVersionStatus.DRAFT) {
+            throw new IllegalArgumentException("Timetable version " + id + " is not a draft");
+        }
+        return version;
+    }
+
+    /** The version lessons are added to or removed from: the given draft, or the active version. */
+    public TimetableVersion requireWritable(Long id) {
+        TimetableVersion version = require(id != null ? id : activeVersionId);
+        if (version.getStatus() == TimetableVersionStatus.ARCHIVED) {
+            throw new IllegalArgumentException("Archived timetable versions cannot be changed; create a draft from it instead");
+        }
+        return version;
+    }
+
+    @Transactional(readOnly = true)
+    public TimetableValidationDTO validate(Long id) {
+        TimetableVersion version = require(id);
+        List<BookedLesson> lessons = scheduleRepository.findAllBookedLessons(id);
+        List<String> problems = findProblems(version, lessons);
+        return TimetableValidationDTO.builder()
+                .versionId(id)
+                .valid(problems.isEmpty())
+                .lessonCount(lessons.size())
+                .problems(problems)
+                .build();
+    }
+
+    /**
+     * Makes the version the active one. Drafts have to pass validation first; archived versions were
+     * valid when they were active and are switched back to as they are.
+     */
+    @Transactional
+    public TimetableVersionDTO activate(Long id) {
+        TimetableVersion version = require(id);
+        if (version.getStatus() == TimetableVersionStatus.ACTIVE) {
+            return getVersion(id);
+        }
+        if (version.getStatus() == TimetableVersionStatus.DRAFT) {
+            List<String> problems = findProblems(version, scheduleRepository.findAllBookedLessons(id));
+            if (!problems.isEmpty()) {
+                throw new IllegalArgumentException("Timetable version " + id + " is not valid: "
+                        + String.join("; ", problems));
+            }
+        }
+
+        Long previousId = activeVersionId;
+        versionRepository.archiveActiveExcept(id);
+        versionRepository.markActive(id, LocalDateTime.now());
+        eventPublisher.publishEvent(new TimetableActivatedEvent(id, previousId));
+        log.info("Activated timetable version {} (was {})", id, previousId);
+        return getVersion(id);
+    }
+
+    @Transactional
+    public void deleteDraft(Long id) {
+        TimetableVersion version = requireDraft(id);
+        scheduleRepository.deleteByVersionId(id);
+        versionRepository.delete(version);
+    }
+
+    // Runs before the index and caches rebuild, so they already read through the new pointer
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onTimetableActivated(TimetableActivatedEvent event) {
+        activeVersionId = event.versionId();
+    }
+
+    /**
+     * Overlaps anywhere in the version, and rooms outside the inventory in lessons the version added or
+     * changed; lessons kept as they were in the version it is based on were accepted there already.
+     */
+    private List<String> findProblems(TimetableVersion version, List<BookedLesson> lessons) {
+        List<String> problems = new ArrayList<>();
+        if (lessons.isEmpty()) {
+            problems.add("The timetable has no lessons");
+            return problems;
+        }
+
+        ScheduleIntervalIndex index = new ScheduleIntervalIndex();
+        lessons.stream()
+                .sorted(Comparator.comparing(BookedLesson::id))
+                .forEach(lesson -> {
+                    checkOverlap(index, ScheduleIntervalIndex.Resource.TEACHER, lesson.teacherId(), lesson, problems);
+                    checkOverlap(index, ScheduleIntervalIndex.Resource.CLASS_GROUP, lesson.classGroupId(), lesson,
+                            problems);
+                    checkOverlap(index, ScheduleIntervalIndex.Resource.ROOM, lesson.room(), lesson, problems);
+                    index.add(lesson);
+                });
+
+        Set<String> rooms = roomRepository.findAll().stream().map(Room::getName).collect(Collectors.toSet());
+        if (!rooms.isEmpty()) {
+            Set<BookedLesson> inherited = version.getBasedOnVersionId() == null ? Set.of()
+                    : scheduleRepository.findAllBookedLessons(version.getBasedOnVersionId()).stream()
+                            .map(TimetableVersionService::withoutId)
+                            .collect(Collectors.toSet());
+            lessons.stream()
+                    .filter(lesson -> !inherited.contains(withoutId(lesson)))
+                    .map(BookedLesson::room)
+                    .filter(room -> room != null && !rooms.contains(room))
+                    .distinct()
+                    .forEach(room -> problems.add("Room " + room + " is not in the room inventory"));
+        }
+        return problems;
+    }
+
+    private static BookedLesson withoutId(BookedLesson lesson) {
+        return new BookedLesson(null, lesson.teacherId(), lesson.classGroupId(), lesson.room(), lesson.dayOfWeek(),
+                lesson.startTime(), lesson.endTime());
+    }
+
+    private static void checkOverlap(ScheduleIntervalIndex index, ScheduleIntervalIndex.Resource resource,
+            Object resourceId, BookedLesson lesson, List<String> problems) {
+        Long other = index.findOverlap(resource, resourceId, lesson.dayOfWeek(), lesson.startTime(),
+                lesson.endTime(), null);
+        if (other != null) {
+            problems.add(String.format("Lessons %d and %d overlap for %s %s on %s", other, lesson.id(),
+                    resource.name().toLowerCase().replace('_', ' '), resourceId, lesson.dayOfWeek()));
+        }
+    }
+
+    private Map<Long, Long> lessonCounts() {
+        return scheduleRepository.countByVersion().stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+
+    private TimetableVersion require(Long id) {
+        return versionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("TimetableVersion", "id", id));
+    }
+
+    private static TimetableVersionDTO mapToDTO(TimetableVersion version, long lessonCount) {
+        return TimetableVersionDTO.builder()
+                .id(version.getId())
+                .name(version.getName())
+                .status(version.getStatus())
+                .basedOnVersionId(version.getBasedOnVersionId())
+                .lessonCount(lessonCount)
+                .createdAt(version.getCreatedAt())
+                .activatedAt(version.getActivatedAt())
+                .build();
+    }
+}